@@ -494,7 +494,7 @@ public class GUI extends JFrame implements GuiListener {
 
         faqEditorPane.setText(Regex.replaceFirst(IO.read(Constant.PROGRAM_DIR + "FAQ" + Constant.HTML), "<br><br><br>", Str.get(555) + "<br><br><br>"));
 
-        AutoCompleteDecorator.decorate(titleTextField, Arrays.asList(Regex.split(IO.read(Constant.PROGRAM_DIR + "autoCompleteTitles" + Constant.TXT),
+        AutoCompleteDecorator.decorate(titleTextField, Arrays.asList(Regex.split(IO.read(Constant.PROGRAM_DIR + Constant.AUTO_COMPLETE_TITLES),
                 Constant.NEWLINE)), false);
 
         UI.initCountComboBoxes(414, 502, regularResultsPerSearchComboBox);
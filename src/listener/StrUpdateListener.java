@@ -1,9 +1,13 @@
 package listener;
 
+import java.util.regex.Pattern;
+
 public interface StrUpdateListener {
 
     String get(int index);
 
+    Pattern pattern(int index);
+
     void update(boolean showConfirmation, GuiListener guiListener);
 
     void update();
@@ -5,6 +5,7 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.zip.CRC32;
 import javax.swing.JOptionPane;
 import listener.DomainType;
 import listener.GuiListener;
@@ -133,10 +134,15 @@ class AppUpdater {
 
             String installerPath = Constant.APP_DIR + "auto-vidmasta-setup-" + newAppVersion + installerSuffix;
             File installer = new File(installerPath);
-            if (!installer.exists()) {
-                Connection.saveData(installerLink, installerPath, DomainType.UPDATE, false);
+            long checksum;
+            if (installer.exists()) {
+                checksum = IO.checksum(installer);
+            } else {
+                CRC32 crc32 = new CRC32();
+                Connection.saveData(installerLink, installerPath, DomainType.UPDATE, false, crc32);
+                checksum = crc32.getValue();
             }
-            if (Long.parseLong(installerChecksum) != IO.checksum(installer)) {
+            if (Long.parseLong(installerChecksum) != checksum) {
                 IO.fileOp(installer, IO.RM_FILE);
                 throw new UpdateException("auto-setup installer is corrupt");
             }
@@ -43,15 +43,19 @@ import search.SubtitleFinder;
 import search.SummaryReader;
 import search.download.Prefetcher;
 import search.download.VideoFinder;
+import search.util.VideoSearch;
 import str.Str;
 import torrent.Magnet;
 import util.AbstractWorker;
 import util.AbstractWorker.StateValue;
 import util.Connection;
 import util.Constant;
+import util.HostLimiter;
 import util.IO;
 import util.MediaPlayer;
 import util.ModClass;
+import util.PatternCache;
+import util.RegexProfiler;
 import util.ThrowableUtil;
 import util.Worker;
 
@@ -137,7 +141,17 @@ public class Main implements WorkerListener {
                 gui.stopPosterCacher();
                 Connection.stopStatusBar();
                 releaseSingleInstance();
-                Connection.clearCache();
+                if (Debug.DEBUG) {
+                    Debug.println(HostLimiter.stats());
+                    Debug.println(Connection.cacheStats());
+                    Debug.println(VideoSearch.searchEngineStats());
+                    Debug.println(PatternCache.stats());
+                }
+                Connection.closeCache();
+                VideoSearch.saveTitleLinkCache();
+                if (RegexProfiler.isEnabled()) {
+                    RegexProfiler.dump();
+                }
                 Magnet.stopAzureus();
             }
         });
@@ -189,11 +203,11 @@ public class Main implements WorkerListener {
             @Override
             public void doWork() {
                 // Warm and clean cache
+                Connection.loadCache();
+                VideoSearch.loadTitleIndex();
                 for (File file : IO.listFiles(Constant.CACHE_DIR)) {
                     if (file.isDirectory()) {
                         file.listFiles();
-                    } else {
-                        IO.fileOp(file, IO.RM_FILE);
                     }
                 }
             }
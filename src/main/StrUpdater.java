@@ -7,12 +7,14 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 import javax.swing.JOptionPane;
 import listener.GuiListener;
 import listener.StrUpdateListener;
 import util.Connection;
 import util.Constant;
 import util.IO;
+import util.PatternCache;
 import util.Regex;
 import util.ThrowableUtil;
 import util.UpdateException;
@@ -22,7 +24,7 @@ public class StrUpdater implements StrUpdateListener {
     private final Object updateLock;
     private final Collection<UpdateListener> updateListeners;
     private final CountDownLatch updateDoneSignal;
-    private volatile String[] strs;
+    private volatile Snapshot snapshot;
 
     public StrUpdater() {
         updateLock = new Object();
@@ -79,13 +81,18 @@ public class StrUpdater implements StrUpdateListener {
             for (UpdateListener updateListener : updateListeners) {
                 updateListener.update(newestStrs);
             }
-            strs = newestStrs;
+            snapshot = new Snapshot(newestStrs, PatternCache.compile(newestStrs));
         }
     }
 
     @Override
     public String get(int index) {
-        return strs[index];
+        return snapshot.strs[index];
+    }
+
+    @Override
+    public Pattern pattern(int index) {
+        return snapshot.patterns[index];
     }
 
     @Override
@@ -132,6 +139,7 @@ public class StrUpdater implements StrUpdateListener {
     @Override
     public void update() {
         synchronized (updateLock) {
+            String[] strs = snapshot.strs;
             setStrs(Arrays.copyOf(strs, strs.length));
         }
     }
@@ -169,4 +177,15 @@ public class StrUpdater implements StrUpdateListener {
             }
         }
     }
+
+    private static class Snapshot {
+
+        final String[] strs;
+        final Pattern[] patterns;
+
+        Snapshot(String[] strs, Pattern[] patterns) {
+            this.strs = strs;
+            this.patterns = patterns;
+        }
+    }
 }
@@ -1,6 +1,7 @@
 package search;
 
 import debug.Debug;
+import java.nio.CharBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -12,11 +13,13 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import listener.DomainType;
 import listener.GuiListener;
 import listener.Video;
+import search.util.TitleDetails;
 import search.util.VideoSearch;
 import str.Str;
 import util.AbstractWorker;
@@ -37,7 +40,7 @@ public abstract class AbstractSearcher extends Worker {
     protected Set<String> allVideos, allBufferVideos;
     protected List<Video> videoBuffer;
     protected String currSourceCode, prevSourceCode;
-    private Worker prefetcher;
+    private Map<String, Future<String>> prefetches;
     private final int SLEEP = Integer.parseInt(Str.get(166));
 
     static {
@@ -69,7 +72,7 @@ public abstract class AbstractSearcher extends Worker {
         videoBuffer = searcher.videoBuffer;
         currSourceCode = searcher.currSourceCode;
         prevSourceCode = searcher.prevSourceCode;
-        prefetcher = searcher.prefetcher;
+        prefetches = searcher.prefetches;
     }
 
     @Override
@@ -161,7 +164,7 @@ public abstract class AbstractSearcher extends Worker {
 
     protected abstract int getTitleRegexIndex(Iterable<String> urls) throws Exception;
 
-    protected abstract void addVideo(String titleMatch);
+    protected abstract void addVideo(CharSequence titleMatch);
 
     protected abstract void checkVideoes(Iterable<String> urls) throws Exception;
 
@@ -201,12 +204,26 @@ public abstract class AbstractSearcher extends Worker {
         return urls;
     }
 
-    protected boolean isTVShow(String titleMatch) {
+    protected boolean isTVShow(CharSequence titleMatch) {
         int index1, index2;
-        return (isTVShow == null ? (index1 = titleMatch.indexOf(separators.get(false))) == -1 || ((index2 = titleMatch.indexOf(separators.get(true))) != -1
+        return (isTVShow == null ? (index1 = indexOf(titleMatch, separators.get(false))) == -1 || ((index2 = indexOf(titleMatch, separators.get(true))) != -1
                 && index2 < index1) : isTVShow);
     }
 
+    private static int indexOf(CharSequence input, String str) {
+        int len = str.length();
+        for (int i = 0, max = input.length() - len; i <= max; i++) {
+            int j = 0;
+            while (j < len && input.charAt(i + j) == str.charAt(j)) {
+                ++j;
+            }
+            if (j == len) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     private void searchNextPage() throws Exception {
         if (videoBuffer.isEmpty()) {
             initCurrVideos();
@@ -249,13 +266,18 @@ public abstract class AbstractSearcher extends Worker {
 
         prevSourceCode = currSourceCode;
         Map<String, String> urls = getUrls(currSearchPage);
+        List<Future<String>> sourceCodes = new ArrayList<Future<String>>(urls.size());
+        for (String url : urls.values()) {
+            sourceCodes.add(Connection.fetchAsync(url, domainType(), true, false));
+        }
 
-        stopPrefetcher();
+        Collection<Future<String>> joinedPrefetches = stopPrefetcher(urls.values());
 
         try {
             boolean init = true;
-            for (Entry<String, String> urlsEntry : urls.entrySet()) {
-                String sourceCode = Connection.getSourceCode(urlsEntry.getValue(), domainType()) + urlsEntry.getKey();
+            Iterator<Future<String>> sourceCodesIt = sourceCodes.iterator();
+            for (String separator : urls.keySet()) {
+                String sourceCode = AbstractWorker.get(sourceCodesIt.next()) + separator;
                 currSourceCode = (init ? sourceCode : currSourceCode + sourceCode);
                 init = false;
             }
@@ -264,6 +286,13 @@ public abstract class AbstractSearcher extends Worker {
                 return;
             }
             throw new ConnectionException();
+        } finally {
+            for (Future<String> sourceCode : sourceCodes) {
+                sourceCode.cancel(true);
+            }
+            for (Future<String> prefetch : joinedPrefetches) {
+                prefetch.cancel(true);
+            }
         }
 
         startPrefetcher();
@@ -281,7 +310,7 @@ public abstract class AbstractSearcher extends Worker {
                 return;
             }
             if (titleMatcher.find()) {
-                addVideo(currSourceCode.substring(titleMatcher.end()));
+                addVideo(CharBuffer.wrap(currSourceCode, titleMatcher.end(), currSourceCode.length()));
             }
         }
 
@@ -309,30 +338,38 @@ public abstract class AbstractSearcher extends Worker {
             return;
         }
 
-        prefetcher = new Worker() {
-            @Override
-            protected void doWork() throws Exception {
-                if (Debug.DEBUG) {
-                    Debug.println("prefetching search page " + (currSearchPage + 2));
-                }
-                try {
-                    for (String url : getUrls(currSearchPage + 1).values()) {
-                        Connection.getSourceCode(url, domainType(), false);
-                    }
-                } catch (Exception e) {
+        if (Debug.DEBUG) {
+            Debug.println("prefetching search page " + (currSearchPage + 2));
+        }
+        try {
+            Collection<String> urls = getUrls(currSearchPage + 1).values();
+            prefetches = new HashMap<String, Future<String>>(urls.size() * 2);
+            for (String url : urls) {
+                prefetches.put(url, Connection.fetchAsync(url, domainType(), false, false));
+            }
+        } catch (Exception e) {
+            if (Debug.DEBUG) {
+                Debug.print(e);
+            }
+        }
+    }
+
+    private Collection<Future<String>> stopPrefetcher(Collection<String> joinedUrls) {
+        Collection<Future<String>> joinedPrefetches = new ArrayList<Future<String>>(joinedUrls.size());
+        if (prefetches != null) {
+            for (Entry<String, Future<String>> prefetch : prefetches.entrySet()) {
+                if (joinedUrls.contains(prefetch.getKey())) {
                     if (Debug.DEBUG) {
-                        Debug.print(e);
+                        Debug.println(prefetch.getKey() + (prefetch.getValue().isDone() ? " was prefetched" : " joins its in-flight prefetch"));
                     }
+                    joinedPrefetches.add(prefetch.getValue());
+                } else {
+                    prefetch.getValue().cancel(true);
                 }
             }
-        };
-        prefetcher.execute();
-    }
-
-    private void stopPrefetcher() {
-        if (prefetcher != null) {
-            prefetcher.cancel(true);
+            prefetches = null;
         }
+        return joinedPrefetches;
     }
 
     protected void incrementProgress() {
@@ -371,10 +408,10 @@ public abstract class AbstractSearcher extends Worker {
                     return;
                 }
 
-                String sourceCode = video.summary;
-                video.oldTitle = VideoSearch.getOldTitle(sourceCode);
-                video.summary = VideoSearch.getSummary(sourceCode, video.IS_TV_SHOW);
-                video.imageLink = Regex.match(sourceCode, 190);
+                TitleDetails titleDetails = new TitleDetails(video.summary);
+                video.oldTitle = titleDetails.oldTitle();
+                video.summary = titleDetails.summary(video.IS_TV_SHOW);
+                video.imageLink = titleDetails.imageLink();
                 if (video.imageLink.isEmpty()) {
                     if (noImage(video)) {
                         return;
@@ -10,6 +10,7 @@ import java.util.regex.Pattern;
 import listener.DomainType;
 import listener.GuiListener;
 import listener.Video;
+import search.util.TitleDetails;
 import search.util.TitleParts;
 import search.util.VideoSearch;
 import str.Str;
@@ -57,11 +58,11 @@ public class PopularSearcher extends AbstractSearcher {
         return newLocales;
     }
 
-    static boolean isValidLocale(String sourceCode, String[] locales, int regexStartIndex) {
+    static boolean isValidLocale(TitleDetails titleDetails, String[] locales, int regexStartIndex) {
         for (String locale : locales) {
-            if (Regex.firstMatch(sourceCode, Str.get(regexStartIndex) + locale + Str.get(regexStartIndex + 1)).isEmpty()) {
+            if (Regex.firstMatch(titleDetails.SOURCE_CODE, Str.get(regexStartIndex) + locale + Str.get(regexStartIndex + 1)).isEmpty()) {
                 if (Debug.DEBUG) {
-                    TitleParts titleParts = VideoSearch.getImdbTitleParts(sourceCode);
+                    TitleParts titleParts = titleDetails.titleParts();
                     Debug.println("Wrong locale (NOT " + locale + "): '" + titleParts.title + "' '" + titleParts.year + '\'');
                 }
                 return false;
@@ -173,7 +174,7 @@ public class PopularSearcher extends AbstractSearcher {
     }
 
     @Override
-    protected void addVideo(String titleMatch) {
+    protected void addVideo(CharSequence titleMatch) {
         String video = Regex.match(titleMatch, 123);
         String titleName = Regex.match(video, 125);
         if (!titleName.isEmpty() && (!isFeed || isTitleValid(titleName, video))) {
@@ -233,28 +234,28 @@ public class PopularSearcher extends AbstractSearcher {
             return null;
         }
 
-        String sourceCode = Connection.getSourceCode(titleLink, DomainType.VIDEO_INFO);
-        TitleParts titleParts = VideoSearch.getImdbTitleParts(sourceCode);
+        TitleDetails titleDetails = new TitleDetails(Connection.getSourceCode(titleLink, DomainType.VIDEO_INFO));
+        TitleParts titleParts = titleDetails.titleParts();
         if (titleParts.title.isEmpty() || titleParts.year.isEmpty() || (isFeed && !isTitleYearValid(titleParts.year))) {
             return null;
         }
 
-        if (!VideoSearch.isImdbVideoType(sourceCode, isTVShow)) {
+        if (!titleDetails.isVideoType(isTVShow)) {
             if (Debug.DEBUG) {
                 Debug.println("Wrong video type (NOT a " + (isTVShow ? "TV show" : "movie") + "): '" + titleParts.title + "' '" + titleParts.year + '\'');
             }
             return null;
         }
 
-        if (!isValidLocale(sourceCode, languages, 183) || !isValidLocale(sourceCode, countries, 185)) {
+        if (!isValidLocale(titleDetails, languages, 183) || !isValidLocale(titleDetails, countries, 185)) {
             return null;
         }
 
-        Video vid = new Video(titleID, titleParts.title, titleParts.year, video.IS_TV_SHOW, VideoSearch.isImdbVideoType(sourceCode, isTVShow ? 589 : 590));
-        vid.rating = VideoSearch.rating(Regex.match(sourceCode, 127));
+        Video vid = new Video(titleID, titleParts.title, titleParts.year, video.IS_TV_SHOW, titleDetails.isVideoType(isTVShow ? 589 : 590));
+        vid.rating = titleDetails.rating();
         vid.season = video.season;
         vid.episode = video.episode;
-        vid.summary = sourceCode;
+        vid.summary = titleDetails.SOURCE_CODE;
         return vid;
     }
 
@@ -11,6 +11,7 @@ import java.util.concurrent.ConcurrentSkipListSet;
 import listener.DomainType;
 import listener.GuiListener;
 import listener.Video;
+import search.util.TitleDetails;
 import search.util.TitleParts;
 import search.util.VideoSearch;
 import str.Str;
@@ -106,24 +107,24 @@ public class RegularSearcher extends AbstractSearcher {
             return;
         }
 
-        String sourceCode = Connection.getSourceCode(titleLink, DomainType.VIDEO_INFO);
-        TitleParts titleParts = VideoSearch.getImdbTitleParts(sourceCode);
+        TitleDetails titleDetails = new TitleDetails(Connection.getSourceCode(titleLink, DomainType.VIDEO_INFO));
+        TitleParts titleParts = titleDetails.titleParts();
         if (titleParts.title.isEmpty() || titleParts.year.isEmpty()) {
             return;
         }
 
         boolean tvShow;
         if (isTVShow != null) {
-            if (!VideoSearch.isImdbVideoType(sourceCode, isTVShow)) {
+            if (!titleDetails.isVideoType(isTVShow)) {
                 if (Debug.DEBUG) {
                     Debug.println("Wrong video type (NOT a " + (isTVShow ? "TV show" : "movie") + "): '" + titleParts.title + "' '" + titleParts.year + '\'');
                 }
                 return;
             }
             tvShow = isTVShow;
-        } else if (VideoSearch.isImdbVideoType(sourceCode, true)) {
+        } else if (titleDetails.isVideoType(true)) {
             tvShow = true;
-        } else if (VideoSearch.isImdbVideoType(sourceCode, false)) {
+        } else if (titleDetails.isVideoType(false)) {
             tvShow = false;
         } else {
             if (Debug.DEBUG) {
@@ -132,11 +133,11 @@ public class RegularSearcher extends AbstractSearcher {
             return;
         }
 
-        Video video = new Video(titleID, titleParts.title, titleParts.year, tvShow, VideoSearch.isImdbVideoType(sourceCode, tvShow ? 589 : 590));
-        video.oldTitle = VideoSearch.getOldTitle(sourceCode);
-        video.rating = VideoSearch.rating(Regex.match(sourceCode, 127));
-        video.summary = VideoSearch.getSummary(sourceCode, tvShow);
-        video.imageLink = Regex.match(sourceCode, 190);
+        Video video = new Video(titleID, titleParts.title, titleParts.year, tvShow, titleDetails.isVideoType(tvShow ? 589 : 590));
+        video.oldTitle = titleDetails.oldTitle();
+        video.rating = titleDetails.rating();
+        video.summary = titleDetails.summary(tvShow);
+        video.imageLink = titleDetails.imageLink();
         if (!video.imageLink.isEmpty()) {
             VideoSearch.saveImage(video);
         }
@@ -204,7 +205,7 @@ public class RegularSearcher extends AbstractSearcher {
     }
 
     @Override
-    protected void addVideo(String titleMatch) {
+    protected void addVideo(CharSequence titleMatch) {
         String yearAndType = Regex.match(titleMatch, 27);
         boolean tvShow = isTVShow(titleMatch);
         Video video = new Video(VideoSearch.normalize(Regex.firstMatch(Regex.match(titleMatch, 23), 628)), Regex.match(titleMatch, 25), Regex.firstMatch(
@@ -229,7 +230,7 @@ public class RegularSearcher extends AbstractSearcher {
     protected void checkVideoes(Iterable<String> urls) {
     }
 
-    private boolean isValid(Video video, String source) {
+    private boolean isValid(Video video, CharSequence source) {
         if (video.rating.isEmpty()) {
             if (Debug.DEBUG) {
                 Debug.println("video (" + video.title + ", " + video.year + ") rating is unknown!");
@@ -9,6 +9,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.ZipException;
 import listener.ContentType;
 import listener.DomainType;
 import listener.GuiListener;
@@ -214,9 +215,6 @@ public class SubtitleFinder extends Worker {
 
         Collections.sort(subtitles);
 
-        long subtitleName = Str.hashCode(video.ID);
-        String subtitleDir = Constant.APP_DIR + subtitleName + Constant.FILE_SEPARATOR;
-        String subtitleZip = subtitleDir + subtitleName + Constant.ZIP;
         int numSubtitles = subtitles.size(), maxNumSubtitles = Integer.parseInt(Str.get(458));
         boolean tempFirstMatch = firstMatch;
 
@@ -248,57 +246,43 @@ public class SubtitleFinder extends Worker {
                 return;
             }
 
-            IO.fileOp(subtitleDir, IO.MK_DIR);
+            IO.fileOp(Constant.TEMP_DIR, IO.MK_DIR);
+            String subtitleFileName;
             try {
-                try {
-                    Connection.saveData(url, subtitleZip, DomainType.SUBTITLE, true, prevUrl);
-                } catch (Exception e) {
-                    if (Debug.DEBUG) {
-                        Debug.print(e);
-                    }
-                    if (!isCancelled()) {
-                        guiListener.error(new ConnectionException(Connection.error(url)));
-                    }
-                    continue;
+                subtitleFileName = Connection.saveZipEntry(url, tempSubtitleFile.getPath(), Regex.pattern(438), DomainType.SUBTITLE, true, prevUrl);
+            } catch (ZipException e) {
+                if (Debug.DEBUG) {
+                    Debug.print(e);
                 }
-
-                try {
-                    IO.unzip(subtitleZip, subtitleDir);
-                } catch (Exception e) {
-                    if (Debug.DEBUG) {
-                        Debug.print(e);
-                    }
-                    continue;
+                continue;
+            } catch (Exception e) {
+                if (Debug.DEBUG) {
+                    Debug.print(e);
                 }
-
-                if (isCancelled()) {
-                    return;
+                if (!isCancelled()) {
+                    guiListener.error(new ConnectionException(Connection.error(url)));
                 }
+                continue;
+            }
 
-                File subtitleFile = IO.findFile(new File(subtitleDir), Regex.pattern(438));
-                if (subtitleFile != null) {
-                    String subtitleFileName = subtitleFile.getName();
-                    if (tempFirstMatch) {
-                        if (strExportListener == null) {
-                            searchStopped();
-                            guiListener.saveSubtitle(subtitleFileName, subtitleFile);
-                        } else {
-                            subtitleLink = url;
-                        }
-                        complete = true;
-                    }
-                    IO.fileOp(Constant.TEMP_DIR, IO.MK_DIR);
-                    if (subtitleFile.renameTo(tempSubtitleFile)) {
-                        cache.put(tempSubtitleFileName, subtitleFileName);
-                    }
-                    if (!tempFirstMatch) {
-                        tempFirstMatch = true;
-                        continue;
-                    }
-                    return;
+            if (isCancelled()) {
+                return;
+            }
+
+            if (subtitleFileName != null) {
+                cache.put(tempSubtitleFileName, subtitleFileName);
+                if (!tempFirstMatch) {
+                    tempFirstMatch = true;
+                    continue;
+                }
+                if (strExportListener == null) {
+                    searchStopped();
+                    guiListener.saveSubtitle(subtitleFileName, tempSubtitleFile);
+                } else {
+                    subtitleLink = url;
                 }
-            } finally {
-                IO.fileOp(subtitleDir, IO.RM_DIR);
+                complete = true;
+                return;
             }
         }
         notFound();
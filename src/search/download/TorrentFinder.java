@@ -4,6 +4,7 @@ import debug.Debug;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.net.URLEncoder;
+import java.nio.CharBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -16,11 +17,13 @@ import listener.GuiListener;
 import listener.Video;
 import search.BoxSetVideo;
 import search.util.TitleParts;
+import search.util.TitleDetails;
 import search.util.VideoSearch;
 import str.Str;
 import torrent.FileTypeChecker;
 import torrent.Magnet;
 import torrent.Torrent;
+import util.AbstractWorker;
 import util.Connection;
 import util.ConnectionException;
 import util.Constant;
@@ -139,36 +142,26 @@ public class TorrentFinder extends Worker {
     }
 
     public Collection<Torrent> getTorrents(boolean prefetch, boolean generalSearch) throws Exception {
-        String urlForm = Str.get(721), urlFormOptions = URLEncoder.encode(Regex.clean(video.title) + (ignoreYear ? "" : (' ' + video.year)) + seasonAndEpisode,
-                Constant.UTF8) + (generalSearch ? Str.get(657) : categorySearch);
+        String searchUrl = searchUrl(generalSearch);
         if (isCancelled()) {
             return null;
         }
 
         String sourceCode;
         try {
-            sourceCode = Connection.getSourceCode(url = urlForm + urlFormOptions, DomainType.DOWNLOAD_LINK_INFO, !prefetch, false, FileNotFoundException.class);
+            sourceCode = Connection.getSourceCode(url = searchUrl, DomainType.DOWNLOAD_LINK_INFO, !prefetch, false, FileNotFoundException.class);
         } catch (IOException2 e) {
-            if (Debug.DEBUG) {
-                Debug.println(e);
-            }
-            if (Regex.firstMatch(e.extraMsg, 146).isEmpty()) {
+            if ((sourceCode = errorSourceCode(e)) == null) {
                 return null;
             }
-            sourceCode = e.extraMsg;
-        }
-
-        if (!isSourceCodeValid(sourceCode) || isCancelled()) {
-            return null;
         }
 
-        String firstPageLink = Regex.firstMatch(sourceCode, Str.get(orderByLeechers ? 660 : 661));
-        firstPageLink = Regex.replaceAllRepeatedly(firstPageLink, 666);
-        if (firstPageLink.isEmpty()) {
+        String firstPageUrl = firstPageUrl(sourceCode);
+        if (firstPageUrl == null) {
             return null;
         }
 
-        sourceCode = Connection.getSourceCode(url = Str.get(722) + firstPageLink, DomainType.DOWNLOAD_LINK_INFO, !prefetch);
+        sourceCode = Connection.getSourceCode(url = firstPageUrl, DomainType.DOWNLOAD_LINK_INFO, !prefetch);
         if (!isSourceCodeValid(sourceCode) || isCancelled() || prefetch) {
             return null;
         }
@@ -209,6 +202,50 @@ public class TorrentFinder extends Worker {
         return null;
     }
 
+    Future<String> prefetchSearchPage() throws Exception {
+        return Connection.fetchAsync(url = searchUrl(true), DomainType.DOWNLOAD_LINK_INFO, false, false, FileNotFoundException.class);
+    }
+
+    Future<String> prefetchFirstPage(Future<String> searchPage) throws Exception {
+        String sourceCode;
+        try {
+            sourceCode = AbstractWorker.get(searchPage);
+        } catch (IOException2 e) {
+            if ((sourceCode = errorSourceCode(e)) == null) {
+                return null;
+            }
+        }
+
+        String firstPageUrl = firstPageUrl(sourceCode);
+        return firstPageUrl == null ? null : Connection.fetchAsync(url = firstPageUrl, DomainType.DOWNLOAD_LINK_INFO);
+    }
+
+    void prefetched(Future<String> firstPage) throws Exception {
+        isSourceCodeValid(AbstractWorker.get(firstPage));
+    }
+
+    private String searchUrl(boolean generalSearch) throws Exception {
+        return Str.get(721) + URLEncoder.encode(Regex.clean(video.title) + (ignoreYear ? "" : (' ' + video.year)) + seasonAndEpisode, Constant.UTF8)
+                + (generalSearch ? Str.get(657) : categorySearch);
+    }
+
+    private static String errorSourceCode(IOException2 e) {
+        if (Debug.DEBUG) {
+            Debug.println(e);
+        }
+        return Regex.firstMatch(e.extraMsg, 146).isEmpty() ? null : e.extraMsg;
+    }
+
+    private String firstPageUrl(String searchPage) throws ConnectionException {
+        if (!isSourceCodeValid(searchPage) || isCancelled()) {
+            return null;
+        }
+
+        String firstPageLink = Regex.firstMatch(searchPage, Str.get(orderByLeechers ? 660 : 661));
+        firstPageLink = Regex.replaceAllRepeatedly(firstPageLink, 666);
+        return firstPageLink.isEmpty() ? null : Str.get(722) + firstPageLink;
+    }
+
     private boolean isSourceCodeValid(String sourceCode) throws ConnectionException {
         if (!Regex.firstMatch(sourceCode, 146).isEmpty() || Regex.firstMatch(sourceCode, 504).isEmpty()) {
             Connection.removeDownloadLinkInfoFromCache(url);
@@ -246,7 +283,7 @@ public class TorrentFinder extends Worker {
                 continue;
             }
 
-            String videoStr = Regex.match(sourceCode.substring(titleMatcher.end()), 49), titleName = Regex.match(videoStr, 51);
+            String videoStr = Regex.match(CharBuffer.wrap(sourceCode, titleMatcher.end(), sourceCode.length()), 49), titleName = Regex.match(videoStr, 51);
             if (titleName.isEmpty() || !Regex.isMatch(Regex.match(videoStr, 53), video.IS_TV_SHOW_AND_MOVIE ? 588 : (video.IS_TV_SHOW ? 562 : 563))) {
                 continue;
             }
@@ -459,13 +496,13 @@ public class TorrentFinder extends Worker {
             return true;
         }
 
-        String source = Connection.getSourceCode(titleLink, DomainType.VIDEO_INFO);
-        titleParts = VideoSearch.getImdbTitleParts(source);
-        if (isOldTitle && (titleParts.title = Regex.match(source, 174)).isEmpty()) {
+        TitleDetails titleDetails = new TitleDetails(Connection.getSourceCode(titleLink, DomainType.VIDEO_INFO));
+        titleParts = titleDetails.titleParts();
+        if (isOldTitle && (titleParts.title = titleDetails.match(174)).isEmpty()) {
             return false;
         }
 
-        if (!VideoSearch.isImdbVideoType(source, video.IS_TV_SHOW)) {
+        if (!titleDetails.isVideoType(video.IS_TV_SHOW)) {
             if (Debug.DEBUG) {
                 Debug.println("Wrong video type (NOT a " + (video.IS_TV_SHOW ? "TV show" : "movie") + "): '" + titleParts.title + "' '" + titleParts.year + '\'');
             }
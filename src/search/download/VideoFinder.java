@@ -10,15 +10,18 @@ import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
 import listener.ContentType;
 import listener.DomainType;
 import listener.GuiListener;
 import listener.Video;
 import listener.VideoStrExportListener;
 import search.BoxSetVideo;
+import search.util.TitleDetails;
 import search.util.VideoSearch;
 import str.Str;
 import torrent.FileTypeChecker;
@@ -847,9 +850,7 @@ public class VideoFinder extends Worker {
             @Override
             public void run() throws Exception {
                 if (PREFETCH) {
-                    for (TorrentFinder finder : torrentFinders) {
-                        finder.getTorrents(true, true);
-                    }
+                    prefetchTorrents();
                     return;
                 }
 
@@ -891,14 +892,45 @@ public class VideoFinder extends Worker {
         }
     }
 
+    private void prefetchTorrents() throws Exception {
+        List<Future<String>> searchPages = new ArrayList<Future<String>>(torrentFinders.size()), firstPages = new ArrayList<Future<String>>(
+                torrentFinders.size());
+        try {
+            for (TorrentFinder finder : torrentFinders) {
+                searchPages.add(finder.prefetchSearchPage());
+            }
+            Iterator<Future<String>> searchPagesIt = searchPages.iterator();
+            for (TorrentFinder finder : torrentFinders) {
+                firstPages.add(finder.prefetchFirstPage(searchPagesIt.next()));
+            }
+            Iterator<Future<String>> firstPagesIt = firstPages.iterator();
+            for (TorrentFinder finder : torrentFinders) {
+                Future<String> firstPage = firstPagesIt.next();
+                if (firstPage != null) {
+                    finder.prefetched(firstPage);
+                }
+            }
+        } catch (Exception e) {
+            for (Future<String> page : searchPages) {
+                page.cancel(true);
+            }
+            for (Future<String> page : firstPages) {
+                if (page != null) {
+                    page.cancel(true);
+                }
+            }
+            throw e;
+        }
+    }
+
     private void updateOldTitleAndSummary() throws Exception {
         synchronized (VIDEO_LOCK) {
             if (!video.summary.isEmpty() || !foreground) {
                 return;
             }
 
-            String sourceCode = Connection.getSourceCode(VideoSearch.url(video), DomainType.VIDEO_INFO, !PREFETCH);
-            video.oldTitle = VideoSearch.getOldTitle(sourceCode);
+            TitleDetails titleDetails = new TitleDetails(Connection.getSourceCode(VideoSearch.url(video), DomainType.VIDEO_INFO, !PREFETCH));
+            video.oldTitle = titleDetails.oldTitle();
             if (!video.oldTitle.isEmpty()) {
                 String displayTitle = guiListener.getTitle(ROW, video.ID);
                 if (displayTitle != null) {
@@ -919,10 +951,10 @@ public class VideoFinder extends Worker {
                 }
             }
 
-            String imageLink = Regex.match(sourceCode, 188);
+            String imageLink = titleDetails.match(188);
             guiListener.setImageLink(imageLink, ROW, video.ID);
             video.imageLink = imageLink;
-            String summary = VideoSearch.getSummary(sourceCode, video.IS_TV_SHOW);
+            String summary = titleDetails.summary(video.IS_TV_SHOW);
             guiListener.setSummary(summary, ROW, video.ID);
             video.summary = summary;
         }
@@ -0,0 +1,67 @@
+package search.util;
+
+import java.util.Arrays;
+
+public class SearchEngine {
+
+    private static final int NUM_LATENCIES = 32, MIN_NUM_LATENCIES = 4;
+    private static final long DEFAULT_HEDGE_DELAY = 1500, MIN_HEDGE_DELAY = 250, MAX_HEDGE_DELAY = 8000;
+    private static final double HEDGE_PERCENTILE = 0.9, MIN_SUCCESS_RATIO = 0.05;
+    public final String URL;
+    private final long[] latencies = new long[NUM_LATENCIES];
+    private int numLatencies, nextLatency, numQueries, numResults, numFailures;
+
+    public SearchEngine(String url) {
+        URL = url;
+    }
+
+    public synchronized void answered(long latency, boolean foundResult) {
+        addLatency(latency);
+        ++numQueries;
+        if (foundResult) {
+            ++numResults;
+        }
+    }
+
+    public synchronized void failed(long latency) {
+        addLatency(latency);
+        ++numQueries;
+        ++numFailures;
+    }
+
+    private void addLatency(long latency) {
+        latencies[nextLatency] = latency;
+        nextLatency = (nextLatency + 1) % NUM_LATENCIES;
+        if (numLatencies < NUM_LATENCIES) {
+            ++numLatencies;
+        }
+    }
+
+    public synchronized long latency(double percentile) {
+        if (numLatencies < MIN_NUM_LATENCIES) {
+            return -1;
+        }
+        long[] sortedLatencies = Arrays.copyOf(latencies, numLatencies);
+        Arrays.sort(sortedLatencies);
+        return sortedLatencies[Math.min((int) (percentile * numLatencies), numLatencies - 1)];
+    }
+
+    public long hedgeDelay() {
+        long latency = latency(HEDGE_PERCENTILE);
+        return latency == -1 ? DEFAULT_HEDGE_DELAY : Math.max(MIN_HEDGE_DELAY, Math.min(latency, MAX_HEDGE_DELAY));
+    }
+
+    public synchronized double successRatio() {
+        return numQueries == 0 ? 1 : numResults / (double) numQueries;
+    }
+
+    public double expectedLatency() {
+        long latency = latency(0.5);
+        return latency == -1 ? 0 : latency / Math.max(successRatio(), MIN_SUCCESS_RATIO);
+    }
+
+    public synchronized String stats() {
+        return URL + ": " + numQueries + " queries, " + numResults + " results, " + numFailures + " failures, " + latency(0.5) + " ms median latency, "
+                + hedgeDelay() + " ms hedge delay";
+    }
+}
@@ -0,0 +1,67 @@
+package search.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import util.Regex;
+
+public class TitleDetails {
+
+    private static final int[] FIELDS = {98, 127, 129, 131, 137, 172, 174, 188, 190, 192, 194, 196, 539, 560, 584};
+    public final String SOURCE_CODE;
+    private final Map<Integer, String> matches = new HashMap<Integer, String>(32);
+    private TitleParts titleParts;
+
+    public TitleDetails(String sourceCode) {
+        SOURCE_CODE = sourceCode;
+    }
+
+    public String match(int startRegexIndex) {
+        if (matches.isEmpty()) {
+            int[] regions = Regex.firstRegions(SOURCE_CODE, FIELDS);
+            for (int i = 0; i < FIELDS.length; i++) {
+                int start = regions[i * 2];
+                matches.put(FIELDS[i], start == -1 ? "" : SOURCE_CODE.substring(start, regions[i * 2 + 1]));
+            }
+        }
+
+        String match = matches.get(startRegexIndex);
+        if (match == null) {
+            matches.put(startRegexIndex, match = Regex.match(SOURCE_CODE, startRegexIndex));
+        }
+        return match;
+    }
+
+    public TitleParts titleParts() {
+        if (titleParts == null) {
+            titleParts = VideoSearch.getImdbTitleParts(match(98));
+        }
+        TitleParts titlePartsCopy = new TitleParts();
+        titlePartsCopy.title = titleParts.title;
+        titlePartsCopy.year = titleParts.year;
+        return titlePartsCopy;
+    }
+
+    public boolean isVideoType(boolean isTVShow) {
+        return isVideoType(isTVShow ? 586 : 587);
+    }
+
+    public boolean isVideoType(int typeRegexIndex) {
+        return Regex.isMatch(match(584), typeRegexIndex);
+    }
+
+    public String rating() {
+        return VideoSearch.rating(match(127));
+    }
+
+    public String oldTitle() {
+        return match(172);
+    }
+
+    public String imageLink() {
+        return match(190);
+    }
+
+    public String summary(boolean isTVShow) {
+        return VideoSearch.getSummary(this, isTVShow);
+    }
+}
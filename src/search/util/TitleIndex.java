@@ -0,0 +1,332 @@
+package search.util;
+
+import debug.Debug;
+import java.io.File;
+import java.text.Normalizer;
+import java.text.Normalizer.Form;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import util.Constant;
+import util.IO;
+import util.Regex;
+
+public class TitleIndex {
+
+    private static final double MIN_SCORE = 0.85, MIN_SCORE_MARGIN = 0.05;
+    private static final int MAX_TITLES = 20000;
+    private final String indexPath, corpusPath;
+    private volatile Index index;
+    private volatile long loadTime;
+    private final AtomicLong numLookups = new AtomicLong(), numHits = new AtomicLong();
+
+    public TitleIndex(String indexPath, String corpusPath) {
+        this.indexPath = indexPath;
+        this.corpusPath = corpusPath;
+    }
+
+    private static String normalize(String title) {
+        return Regex.replaceAll(Regex.replaceAll(Normalizer.normalize(title.toLowerCase(Locale.ENGLISH), Form.NFD), "\\p{InCombiningDiacriticalMarks}++", ""),
+                "[^\\p{Alnum}]++", " ").trim();
+    }
+
+    private static Set<String> trigrams(String normalizedTitle) {
+        String paddedTitle = ' ' + normalizedTitle + ' ';
+        Set<String> trigrams = new LinkedHashSet<String>(paddedTitle.length() * 2);
+        for (int i = 0, len = paddedTitle.length() - 2; i < len; i++) {
+            trigrams.add(paddedTitle.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    public String get(String title, String year) {
+        numLookups.incrementAndGet();
+        Index currIndex = index;
+        if (currIndex == null) {
+            // Still loading at startup, so fall back to a title search instead of waiting
+            return null;
+        }
+        String normalizedTitle = normalize(Regex.clean(title));
+        if (normalizedTitle.isEmpty()) {
+            return null;
+        }
+
+        Title bestTitle;
+        synchronized (currIndex) {
+            bestTitle = currIndex.get(normalizedTitle, year);
+        }
+        if (bestTitle == null) {
+            return null;
+        }
+        numHits.incrementAndGet();
+        return bestTitle.link;
+    }
+
+    public void put(String title, String year, String link) {
+        Index currIndex = index;
+        String normalizedTitle;
+        if (currIndex == null || (normalizedTitle = normalize(Regex.clean(title))).isEmpty()) {
+            return;
+        }
+        synchronized (currIndex) {
+            currIndex.put(normalizedTitle, year, link);
+        }
+    }
+
+    public synchronized void load() {
+        if (index != null) {
+            return;
+        }
+
+        long startTime = System.currentTimeMillis();
+        Index newIndex = new Index(indexPath);
+        try {
+            File corpus = new File(corpusPath);
+            if (corpus.exists()) {
+                for (String title : Regex.split(IO.read(corpus), Constant.NEWLINE)) {
+                    String normalizedTitle = normalize(title);
+                    if (!normalizedTitle.isEmpty()) {
+                        newIndex.addDoc(trigrams(normalizedTitle));
+                    }
+                }
+            }
+
+            File indexFile = new File(indexPath);
+            if (indexFile.exists()) {
+                for (String title : Regex.split(IO.read(indexFile), Constant.NEWLINE)) {
+                    String[] titleParts = Regex.split(title.trim(), Constant.SEPARATOR1);
+                    if (titleParts.length == 3) {
+                        ++newIndex.numIndexLines;
+                        newIndex.add(titleParts[0], titleParts[1], titleParts[2]);
+                    }
+                }
+            }
+            newIndex.compact();
+        } catch (Exception e) {
+            if (Debug.DEBUG) {
+                Debug.print(e);
+            }
+        }
+        loadTime = System.currentTimeMillis() - startTime;
+        index = newIndex;
+        if (Debug.DEBUG) {
+            Debug.println("title index loaded " + newIndex.titles.size() + " titles and " + newIndex.numDocs + " documents in " + loadTime + " ms");
+        }
+    }
+
+    public double hitRatio() {
+        long lookups = numLookups.get();
+        return lookups == 0 ? 0 : numHits.get() / (double) lookups;
+    }
+
+    public String stats() {
+        Index currIndex = index;
+        int numTitles = 0, numTrigrams = 0;
+        if (currIndex != null) {
+            synchronized (currIndex) {
+                numTitles = currIndex.titles.size();
+                numTrigrams = currIndex.trigramFrequencies.size();
+            }
+        }
+        return "title index: " + numTitles + " titles, " + numTrigrams + " trigrams, " + loadTime + " ms load time, " + numHits.get() + '/' + numLookups.get()
+                + " hits (" + String.format("%.1f", hitRatio() * 100) + "% hit ratio)";
+    }
+
+    private static Set<String> numbers(String normalizedTitle) {
+        Set<String> numbers = new HashSet<String>(4);
+        for (String word : Regex.split(normalizedTitle, " ")) {
+            if (Regex.isMatch(word, "\\d++|[ivx]++")) {
+                numbers.add(word);
+            }
+        }
+        return numbers;
+    }
+
+    private static class Index {
+
+        final String indexPath;
+        final Map<String, Integer> trigramFrequencies = new HashMap<String, Integer>(65536);
+        final Map<String, Title> titles = new LinkedHashMap<String, Title>(1024);
+        final Map<String, List<Title>> postings = new HashMap<String, List<Title>>(8192);
+        int numDocs, numIndexLines;
+
+        Index(String indexPath) {
+            this.indexPath = indexPath;
+        }
+
+        void addDoc(Set<String> trigrams) {
+            ++numDocs;
+            for (String trigram : trigrams) {
+                Integer frequency = trigramFrequencies.get(trigram);
+                trigramFrequencies.put(trigram, frequency == null ? 1 : frequency + 1);
+            }
+        }
+
+        private double weight(String trigram) {
+            Integer frequency = trigramFrequencies.get(trigram);
+            return Math.log(1 + numDocs / (1.0 + (frequency == null ? 0 : frequency)));
+        }
+
+        private double weight(Collection<String> trigrams) {
+            double weight = 0;
+            for (String trigram : trigrams) {
+                weight += weight(trigram);
+            }
+            return weight;
+        }
+
+        Title get(String normalizedTitle, String year) {
+            Title exactTitle = titles.get(normalizedTitle + ' ' + year);
+            if (exactTitle != null) {
+                return exactTitle;
+            }
+
+            if (year.isEmpty()) {
+                return null;
+            }
+
+            Set<String> trigrams = trigrams(normalizedTitle), numbers = numbers(normalizedTitle);
+            Set<Title> candidates = new HashSet<Title>(32);
+            for (String trigram : trigrams) {
+                List<Title> posting = postings.get(trigram);
+                if (posting != null) {
+                    for (Title candidate : posting) {
+                        // Similar titles from the same year that differ in a number are usually different entries of a series
+                        if (candidate.year.equals(year) && candidate.numbers.equals(numbers)) {
+                            candidates.add(candidate);
+                        }
+                    }
+                }
+            }
+
+            double trigramsWeight = weight(trigrams), bestScore = 0, secondBestScore = 0;
+            Title bestTitle = null;
+            for (Title candidate : candidates) {
+                double sharedWeight = 0;
+                for (String trigram : candidate.trigrams) {
+                    if (trigrams.contains(trigram)) {
+                        sharedWeight += weight(trigram);
+                    }
+                }
+                double score = 2 * sharedWeight / (trigramsWeight + weight(candidate.trigrams));
+                if (score > bestScore) {
+                    if (bestTitle != null && !bestTitle.link.equals(candidate.link)) {
+                        secondBestScore = bestScore;
+                    }
+                    bestScore = score;
+                    bestTitle = candidate;
+                } else if (score > secondBestScore && bestTitle != null && !bestTitle.link.equals(candidate.link)) {
+                    secondBestScore = score;
+                }
+            }
+
+            if (bestTitle == null || bestScore < MIN_SCORE || bestScore - secondBestScore < MIN_SCORE_MARGIN) {
+                return null;
+            }
+            if (Debug.DEBUG) {
+                Debug.println("title index matched '" + normalizedTitle + "' (" + year + ") to '" + bestTitle.title + "' with score " + String.format("%.3f", bestScore));
+            }
+            return bestTitle;
+        }
+
+        void put(String normalizedTitle, String year, String link) {
+            if (!add(normalizedTitle, year, link)) {
+                return;
+            }
+            try {
+                IO.write(indexPath, normalizedTitle + Constant.SEPARATOR1 + year + Constant.SEPARATOR1 + link + Constant.NEWLINE, true);
+                ++numIndexLines;
+            } catch (Exception e) {
+                if (Debug.DEBUG) {
+                    Debug.print(e);
+                }
+            }
+            compact();
+        }
+
+        void compact() {
+            if (titles.size() <= MAX_TITLES && numIndexLines <= Math.max(1024, titles.size() * 2)) {
+                return;
+            }
+
+            Iterator<Title> titlesIt = titles.values().iterator();
+            while (titles.size() > MAX_TITLES * 3 / 4) {
+                Title title = titlesIt.next();
+                titlesIt.remove();
+                removePostings(title);
+            }
+
+            StringBuilder index = new StringBuilder(titles.size() * 64);
+            for (Title title : titles.values()) {
+                index.append(title.title).append(Constant.SEPARATOR1).append(title.year).append(Constant.SEPARATOR1).append(title.link).append(Constant.NEWLINE);
+            }
+            try {
+                IO.write(indexPath, index.toString());
+                numIndexLines = titles.size();
+            } catch (Exception e) {
+                if (Debug.DEBUG) {
+                    Debug.print(e);
+                }
+            }
+        }
+
+        void removePostings(Title title) {
+            for (String trigram : title.trigrams) {
+                List<Title> posting = postings.get(trigram);
+                posting.remove(title);
+                if (posting.isEmpty()) {
+                    postings.remove(trigram);
+                }
+            }
+        }
+
+        boolean add(String normalizedTitle, String year, String link) {
+            String key = normalizedTitle + ' ' + year;
+            Title prevTitle = titles.get(key);
+            if (prevTitle != null) {
+                if (prevTitle.link.equals(link)) {
+                    return false;
+                }
+                titles.remove(key);
+                removePostings(prevTitle);
+            }
+
+            Title newTitle = new Title(normalizedTitle, year, link);
+            titles.put(key, newTitle);
+            if (prevTitle == null) {
+                addDoc(newTitle.trigrams);
+            }
+            for (String trigram : newTitle.trigrams) {
+                List<Title> posting = postings.get(trigram);
+                if (posting == null) {
+                    postings.put(trigram, posting = new ArrayList<Title>(4));
+                }
+                posting.add(newTitle);
+            }
+            return true;
+        }
+    }
+
+    private static class Title {
+
+        final String title, year, link;
+        final Set<String> trigrams, numbers;
+
+        Title(String title, String year, String link) {
+            this.title = title;
+            this.year = year;
+            this.link = link;
+            trigrams = trigrams(title);
+            numbers = numbers(title);
+        }
+    }
+}
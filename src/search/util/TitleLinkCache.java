@@ -0,0 +1,136 @@
+package search.util;
+
+import debug.Debug;
+import java.io.File;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicLong;
+import util.Constant;
+import util.IO;
+import util.Regex;
+
+public class TitleLinkCache {
+
+    public static final String NO_TITLE_LINK = "";
+    private final String path;
+    private final int maxSize;
+    private final long titleLinkTTL, noTitleLinkTTL;
+    private final Map<String, TitleLink> titleLinks = new LinkedHashMap<String, TitleLink>(256, 0.75f, true);
+    private boolean isLoaded, isModified;
+    private final AtomicLong hits = new AtomicLong(), negativeHits = new AtomicLong(), misses = new AtomicLong();
+
+    public TitleLinkCache(String path, int maxSize, long titleLinkTTL, long noTitleLinkTTL) {
+        this.path = path;
+        this.maxSize = maxSize;
+        this.titleLinkTTL = titleLinkTTL;
+        this.noTitleLinkTTL = noTitleLinkTTL;
+    }
+
+    public static String query(String title, String year) {
+        return Regex.replaceAll(Regex.clean(title).toLowerCase(Locale.ENGLISH), "\\s++", " ").trim() + (year.isEmpty() ? "" : ' ' + year);
+    }
+
+    public synchronized String get(String query) {
+        load();
+        TitleLink titleLink = titleLinks.get(query);
+        if (titleLink == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        if (isExpired(titleLink)) {
+            titleLinks.remove(query);
+            isModified = true;
+            misses.incrementAndGet();
+            return null;
+        }
+        (titleLink.link.isEmpty() ? negativeHits : hits).incrementAndGet();
+        return titleLink.link;
+    }
+
+    public synchronized void put(String query, String link) {
+        load();
+        titleLinks.put(query, new TitleLink(link == null ? NO_TITLE_LINK : link, System.currentTimeMillis()));
+        isModified = true;
+        Iterator<TitleLink> titleLinksIt = titleLinks.values().iterator();
+        while (titleLinks.size() > maxSize && titleLinksIt.hasNext()) {
+            titleLinksIt.next();
+            titleLinksIt.remove();
+        }
+    }
+
+    private boolean isExpired(TitleLink titleLink) {
+        return System.currentTimeMillis() - titleLink.time >= (titleLink.link.isEmpty() ? noTitleLinkTTL : titleLinkTTL);
+    }
+
+    private void load() {
+        if (isLoaded) {
+            return;
+        }
+        isLoaded = true;
+
+        try {
+            File file = new File(path);
+            if (!file.exists()) {
+                return;
+            }
+            for (String titleLinkStr : Regex.split(IO.read(file), Constant.NEWLINE)) {
+                String[] titleLinkParts = Regex.split(titleLinkStr.trim(), Constant.SEPARATOR1);
+                if (titleLinkParts.length == 3) {
+                    TitleLink titleLink = new TitleLink(titleLinkParts[1], Long.parseLong(titleLinkParts[2]));
+                    if (!isExpired(titleLink)) {
+                        titleLinks.put(titleLinkParts[0], titleLink);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            if (Debug.DEBUG) {
+                Debug.print(e);
+            }
+        }
+        if (Debug.DEBUG) {
+            Debug.println("title link cache loaded " + titleLinks.size() + " title links");
+        }
+    }
+
+    public synchronized void save() {
+        if (!isModified) {
+            return;
+        }
+
+        StringBuilder titleLinksStr = new StringBuilder(titleLinks.size() * 96);
+        for (Entry<String, TitleLink> entry : titleLinks.entrySet()) {
+            TitleLink titleLink = entry.getValue();
+            if (!isExpired(titleLink)) {
+                titleLinksStr.append(entry.getKey()).append(Constant.SEPARATOR1).append(titleLink.link).append(
+                        Constant.SEPARATOR1).append(titleLink.time).append(Constant.NEWLINE);
+            }
+        }
+        try {
+            IO.write(path, titleLinksStr.toString());
+            isModified = false;
+        } catch (Exception e) {
+            if (Debug.DEBUG) {
+                Debug.print(e);
+            }
+        }
+    }
+
+    public synchronized String stats() {
+        return "title link cache: " + titleLinks.size() + '/' + maxSize + " title links, " + hits.get() + " hits, " + negativeHits.get() + " negative hits, "
+                + misses.get() + " misses";
+    }
+
+    private static class TitleLink {
+
+        final String link;
+        final long time;
+
+        TitleLink(String link, long time) {
+            this.link = link;
+            this.time = time;
+        }
+    }
+}
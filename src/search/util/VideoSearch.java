@@ -10,16 +10,24 @@ import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Locale;
+import java.util.Queue;
 import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import listener.DomainType;
 import listener.GuiListener;
 import listener.Video;
 import str.Str;
+import util.AbstractWorker;
 import util.Connection;
 import util.ConnectionException;
 import util.Constant;
@@ -30,57 +38,117 @@ public class VideoSearch {
 
     private static final Random rand = new Random();
     private static final int NUM_SEARCH_ENGINES;
-    private static final List<String> searchEngines;
+    private static final List<SearchEngine> searchEngines;
+    private static final TitleLinkCache titleLinkCache = new TitleLinkCache(Constant.APP_DIR + Constant.TITLE_LINK_CACHE, 8192, 2592000000L, 86400000L);
+    private static final TitleIndex titleIndex = new TitleIndex(Constant.APP_DIR + Constant.TITLE_INDEX, Constant.PROGRAM_DIR + Constant.AUTO_COMPLETE_TITLES);
 
     static {
         NUM_SEARCH_ENGINES = Integer.parseInt(Str.get(622));
-        searchEngines = new ArrayList<String>(NUM_SEARCH_ENGINES);
+        searchEngines = new ArrayList<SearchEngine>(NUM_SEARCH_ENGINES);
         for (int i = 0; i < NUM_SEARCH_ENGINES; i++) {
-            searchEngines.add(Str.get(i));
+            searchEngines.add(new SearchEngine(Str.get(i)));
         }
     }
 
-    public static boolean isImdbVideoType(String sourceCode, boolean isTVShow) {
-        return isImdbVideoType(sourceCode, isTVShow ? 586 : 587);
+    public static String getTitleLink(String title, String year) throws Exception {
+        String query = TitleLinkCache.query(title, year), titleLink = titleLinkCache.get(query);
+        if (titleLink != null) {
+            return titleLink.equals(TitleLinkCache.NO_TITLE_LINK) ? null : titleLink;
+        }
+
+        if ((titleLink = titleIndex.get(title, year)) == null && (titleLink = searchTitleLink(title, year)) != null) {
+            titleIndex.put(title, year, titleLink);
+        }
+        titleLinkCache.put(query, titleLink);
+        return titleLink;
     }
 
-    public static boolean isImdbVideoType(String sourceCode, int typeRegexIndex) {
-        return Regex.isMatch(Regex.match(sourceCode, 584), typeRegexIndex);
+    public static void saveTitleLinkCache() {
+        titleLinkCache.save();
     }
 
-    public static String getTitleLink(String title, String year) throws Exception {
+    public static void loadTitleIndex() {
+        titleIndex.load();
+    }
+
+    private static String searchTitleLink(String title, String year) throws Exception {
         String encodedQuery = URLEncoder.encode(Regex.clean(title) + (year.isEmpty() ? "" : ' ' + year) + Str.get(76), Constant.UTF8);
-        List<String> engines = new ArrayList<String>(searchEngines);
+        List<SearchEngine> engines = new ArrayList<SearchEngine>(searchEngines);
+        Collections.shuffle(engines, rand);
+        Collections.sort(engines, new Comparator<SearchEngine>() {
+            @Override
+            public int compare(SearchEngine engine1, SearchEngine engine2) {
+                return Double.compare(engine1.expectedLatency(), engine2.expectedLatency());
+            }
+        });
+
+        Iterator<SearchEngine> enginesIt = engines.iterator();
+        List<SearchQuery> queries = new ArrayList<SearchQuery>(2);
+        BlockingQueue<SearchQuery> doneQueries = new LinkedBlockingQueue<SearchQuery>();
         boolean noResultFound = false;
+        ConnectionException connectionException = null;
+        long hedgeTime = 0;
+        try {
+            while (true) {
+                long now = System.currentTimeMillis();
+                if (enginesIt.hasNext() && (queries.isEmpty() || now >= hedgeTime)) {
+                    SearchEngine engine = enginesIt.next();
+                    if (Debug.DEBUG && !queries.isEmpty()) {
+                        Debug.println("Hedging search query (" + encodedQuery + "): " + engine.URL);
+                    }
+                    queries.add(new SearchQuery(engine, encodedQuery, doneQueries));
+                    hedgeTime = now + engine.hedgeDelay();
+                    continue;
+                }
+                if (queries.isEmpty()) {
+                    break;
+                }
 
-        for (int i = NUM_SEARCH_ENGINES; i > 0; i--) {
-            String searchEngine = engines.get(rand.nextInt(i));
-            try {
-                String result = Regex.firstMatch(Connection.getSourceCode(searchEngine + encodedQuery, DomainType.SEARCH_ENGINE), 619);
-                if (!result.isEmpty() && !(result = URLDecoder.decode(result, Constant.UTF8)).isEmpty()) {
-                    return Str.get(96) + result;
+                SearchQuery doneQuery = enginesIt.hasNext() ? doneQueries.poll(hedgeTime - now, TimeUnit.MILLISECONDS) : doneQueries.take();
+                if (doneQuery == null || !queries.remove(doneQuery)) {
+                    continue;
                 }
-                noResultFound = true;
-            } catch (ConnectionException e) {
-                if (i == 1) {
-                    if (noResultFound) {
-                        return null;
+
+                try {
+                    String result = Regex.firstMatch(AbstractWorker.get(doneQuery.page), 619);
+                    boolean foundResult = !result.isEmpty() && !(result = URLDecoder.decode(result, Constant.UTF8)).isEmpty();
+                    doneQuery.answered(foundResult);
+                    if (foundResult) {
+                        return Str.get(96) + result;
+                    }
+                    noResultFound = true;
+                } catch (ConnectionException e) {
+                    doneQuery.failed();
+                    connectionException = e;
+                    if (Debug.DEBUG) {
+                        Debug.println("Retrying search query (" + encodedQuery + "): " + e.URL);
                     }
-                    throw e;
-                }
-                if (Debug.DEBUG) {
-                    Debug.println("Retrying search query (" + encodedQuery + "): " + e.URL);
                 }
             }
-            engines.remove(searchEngine);
+        } finally {
+            for (SearchQuery query : queries) {
+                query.page.cancel(true);
+            }
+        }
+
+        if (noResultFound || connectionException == null) {
+            return null;
         }
+        throw connectionException;
+    }
 
-        return null;
+    public static String searchEngineStats() {
+        StringBuilder stats = new StringBuilder(256);
+        stats.append(titleLinkCache.stats()).append(Constant.NEWLINE).append(titleIndex.stats()).append(Constant.NEWLINE).append("search engines:");
+        for (SearchEngine engine : searchEngines) {
+            stats.append(Constant.NEWLINE).append('\t').append(engine.stats());
+        }
+        return stats.toString();
     }
 
-    public static TitleParts getImdbTitleParts(String sourceCode) {
+    static TitleParts getImdbTitleParts(String title) {
         TitleParts titleParts = new TitleParts();
-        titleParts.title = Regex.match(sourceCode, 98);
+        titleParts.title = title;
         Pattern yearPattern = Regex.pattern(100);
         int titleEndIndex = -1;
 
@@ -205,8 +273,8 @@ public class VideoSearch {
         return rating.isEmpty() ? Constant.NO_RATING : rating;
     }
 
-    public static String getSummary(String sourceCode, boolean isTVShow) {
-        String infoBar = Regex.match(sourceCode, 137);
+    static String getSummary(TitleDetails titleDetails, boolean isTVShow) {
+        String infoBar = titleDetails.match(137);
         List<String> genresArr = Regex.matches(infoBar, 139);
 
         StringBuilder genresStr = new StringBuilder(128);
@@ -224,10 +292,10 @@ public class VideoSearch {
             summary.append("<b id=\"").append(Constant.GENRE_HTML_ID).append("\">").append(Str.str("genre")).append(" </b>").append(genresStr).append(br2);
         }
 
-        String summary1 = Regex.match(sourceCode, 129);
+        String summary1 = titleDetails.match(129);
         summary1 = Regex.replaceAll(summary1, 203).trim();
         summary1 = Regex.replaceAll(Regex.replaceAll(summary1, 241), 243);
-        String summary2 = Regex.match(sourceCode, 131);
+        String summary2 = titleDetails.match(131);
         summary2 = Regex.replaceAll(summary2, 205).trim();
         summary2 = Regex.replaceAll(Regex.replaceAll(summary2, 245), 247);
         String storyline = null;
@@ -247,10 +315,10 @@ public class VideoSearch {
         }
 
         List<StringBuilder> nameLists = new ArrayList<StringBuilder>(4);
-        getNames(Regex.match(sourceCode, 560), "creator", nameLists);
-        getNames(Regex.match(sourceCode, 192), "director", nameLists);
-        getNames(Regex.match(sourceCode, 194), "writer", nameLists);
-        getNames(Regex.match(sourceCode, 196), "star", nameLists);
+        getNames(titleDetails.match(560), "creator", nameLists);
+        getNames(titleDetails.match(192), "director", nameLists);
+        getNames(titleDetails.match(194), "writer", nameLists);
+        getNames(titleDetails.match(196), "star", nameLists);
         int lastIndex = nameLists.size() - 1;
         for (int i = 0; i <= lastIndex; i++) {
             if (i == 0) {
@@ -268,13 +336,13 @@ public class VideoSearch {
                     Constant.TV_EPISODE_PLACEHOLDER).append(br1).append("<b id=\"").append(Constant.TV_PREV_EPISODE_HTML_ID).append("\">").append(Str.str(
                                     "prevEpisode")).append(" </b>").append(Constant.TV_EPISODE_PLACEHOLDER);
         } else {
-            String releaseDate = Regex.replaceAll(Regex.match(sourceCode, 539), 541);
+            String releaseDate = Regex.replaceAll(titleDetails.match(539), 541);
             if (Regex.isMatch(releaseDate, 543)) {
                 releaseDate = dateToString(new SimpleDateFormat(Str.get(544), Locale.ENGLISH), releaseDate, Boolean.parseBoolean(Str.get(556)));
             } else if (Regex.isMatch(releaseDate, 548)) {
                 releaseDate = dateToString(new SimpleDateFormat(Str.get(549), Locale.ENGLISH), releaseDate, Boolean.parseBoolean(Str.get(557)));
             } else {
-                releaseDate = dateToString(new SimpleDateFormat("yyyy", Locale.ENGLISH), getImdbTitleParts(sourceCode).year, null);
+                releaseDate = dateToString(new SimpleDateFormat("yyyy", Locale.ENGLISH), titleDetails.titleParts().year, null);
             }
             summary.append("<b>").append(Str.str("releaseDate")).append(" </b>").append(releaseDate);
         }
@@ -359,10 +427,6 @@ public class VideoSearch {
         return prefix;
     }
 
-    public static String getOldTitle(String sourceCode) {
-        return Regex.match(sourceCode, 172);
-    }
-
     public static void saveImage(Video video) {
         String tooOldOrNonexistentImagePath = tooOldOrNonexistentImagePath(video);
         if (tooOldOrNonexistentImagePath != null) {
@@ -467,6 +531,35 @@ public class VideoSearch {
         return Regex.isMatch(titleID, Str.get(770)) ? String.format(Str.get(771), Integer.parseInt(titleID)) : titleID;
     }
 
+    private static class SearchQuery {
+
+        final SearchEngine engine;
+        final Future<String> page;
+        private final long startTime = System.currentTimeMillis();
+        private final boolean isCached;
+
+        SearchQuery(SearchEngine engine, String encodedQuery, final Queue<SearchQuery> doneQueries) {
+            this.engine = engine;
+            page = Connection.fetchAsync(engine.URL + encodedQuery, DomainType.SEARCH_ENGINE, true, false, new Runnable() {
+                @Override
+                public void run() {
+                    doneQueries.offer(SearchQuery.this);
+                }
+            });
+            isCached = page.isDone();
+        }
+
+        void answered(boolean foundResult) {
+            if (!isCached) {
+                engine.answered(System.currentTimeMillis() - startTime, foundResult);
+            }
+        }
+
+        void failed() {
+            engine.failed(System.currentTimeMillis() - startTime);
+        }
+    }
+
     private VideoSearch() {
     }
 }
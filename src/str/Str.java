@@ -1,6 +1,7 @@
 package str;
 
 import i18n.I18nStr;
+import java.util.regex.Pattern;
 import listener.GuiListener;
 import listener.StrUpdateListener;
 import listener.StrUpdateListener.UpdateListener;
@@ -17,6 +18,10 @@ public class Str extends I18nStr {
         return strUpdateListener.get(index);
     }
 
+    public static Pattern pattern(int index) {
+        return strUpdateListener.pattern(index);
+    }
+
     public static void update(boolean showConfirmation, GuiListener guiListener) {
         strUpdateListener.update(showConfirmation, guiListener);
     }
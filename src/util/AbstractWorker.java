@@ -1,5 +1,8 @@
 package util;
 
+import debug.Debug;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -20,7 +23,8 @@ public abstract class AbstractWorker<T> implements RunnableFuture<T> {
     }
 
     private volatile StateValue state = StateValue.PENDING;
-    protected volatile Runnable doneAction;
+    private final List<Runnable> doneActions = new ArrayList<Runnable>(2);
+    private boolean isDoneActionsRun;
     private final RunnableFuture<T> future = new FutureTask<T>(new Callable<T>() {
         @Override
         public T call() throws Exception {
@@ -31,8 +35,14 @@ public abstract class AbstractWorker<T> implements RunnableFuture<T> {
         @Override
         protected void done() {
             state = StateValue.DONE;
-            if (doneAction != null) {
-                doneAction.run();
+            List<Runnable> actions;
+            synchronized (doneActions) {
+                isDoneActionsRun = true;
+                actions = new ArrayList<Runnable>(doneActions);
+                doneActions.clear();
+            }
+            for (Runnable action : actions) {
+                runDoneAction(action);
             }
         }
     };
@@ -41,6 +51,26 @@ public abstract class AbstractWorker<T> implements RunnableFuture<T> {
         state = StateValue.DONE;
     }
 
+    public void addDoneAction(Runnable action) {
+        synchronized (doneActions) {
+            if (!isDoneActionsRun) {
+                doneActions.add(action);
+                return;
+            }
+        }
+        runDoneAction(action);
+    }
+
+    private static void runDoneAction(Runnable action) {
+        try {
+            action.run();
+        } catch (Exception e) {
+            if (Debug.DEBUG) {
+                Debug.print(e);
+            }
+        }
+    }
+
     public StateValue getState() {
         return state;
     }
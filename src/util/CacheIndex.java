@@ -0,0 +1,147 @@
+package util;
+
+import debug.Debug;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import listener.DomainType;
+
+public class CacheIndex {
+
+    private static final Map<DomainType, Long> maxAges = new EnumMap<DomainType, Long>(DomainType.class);
+    private final String indexPath;
+    private final ConcurrentMap<Long, Page> pages = new ConcurrentHashMap<Long, Page>(256);
+    private volatile boolean isLoaded;
+
+    static {
+        maxAges.put(DomainType.DOWNLOAD_LINK_INFO, 900000L);
+        maxAges.put(DomainType.VIDEO_INFO, 21600000L);
+        maxAges.put(DomainType.SEARCH_ENGINE, 86400000L);
+        maxAges.put(DomainType.TRAILER, 21600000L);
+        maxAges.put(DomainType.UPDATE, 0L);
+        maxAges.put(DomainType.SUBTITLE, 3600000L);
+    }
+
+    public CacheIndex(String indexPath) {
+        this.indexPath = indexPath;
+    }
+
+    public boolean isFresh(Long urlHashCode) {
+        Page page = pages.get(urlHashCode);
+        return page != null && page.age() < maxAges.get(page.domainType);
+    }
+
+    public boolean contains(Long urlHashCode) {
+        return pages.containsKey(urlHashCode);
+    }
+
+    public void put(Long urlHashCode, long size, DomainType domainType) {
+        pages.put(urlHashCode, new Page(System.currentTimeMillis(), size, domainType));
+    }
+
+    public void remove(Long urlHashCode) {
+        pages.remove(urlHashCode);
+    }
+
+    public Collection<Long> stalePages() {
+        Collection<Long> stalePages = new ArrayList<Long>(pages.size());
+        for (Entry<Long, Page> entry : pages.entrySet()) {
+            Page page = entry.getValue();
+            if (page.age() >= maxAges.get(page.domainType)) {
+                stalePages.add(entry.getKey());
+            }
+        }
+        return stalePages;
+    }
+
+    public long age(Long urlHashCode) {
+        Page page = pages.get(urlHashCode);
+        return page == null ? Long.MAX_VALUE : page.age();
+    }
+
+    public long size(Long urlHashCode) {
+        Page page = pages.get(urlHashCode);
+        return page == null ? 0 : page.size;
+    }
+
+    public int numPages() {
+        return pages.size();
+    }
+
+    public long size() {
+        long size = 0;
+        for (Page page : pages.values()) {
+            size += page.size;
+        }
+        return size;
+    }
+
+    public boolean isLoaded() {
+        return isLoaded;
+    }
+
+    public void load() {
+        long startTime = System.currentTimeMillis();
+        try {
+            File indexFile = new File(indexPath);
+            if (indexFile.exists()) {
+                for (String pageStr : Regex.split(IO.read(indexFile), Constant.NEWLINE)) {
+                    String[] pageParts = Regex.split(pageStr.trim(), Constant.SEPARATOR1);
+                    if (pageParts.length == 4) {
+                        pages.putIfAbsent(Long.valueOf(pageParts[0]), new Page(Long.parseLong(pageParts[1]), Long.parseLong(pageParts[2]), DomainType.valueOf(
+                                pageParts[3])));
+                    }
+                }
+            }
+        } catch (Exception e) {
+            if (Debug.DEBUG) {
+                Debug.print(e);
+            }
+        }
+        isLoaded = true;
+        if (Debug.DEBUG) {
+            Debug.println("cache index loaded " + pages.size() + " pages in " + (System.currentTimeMillis() - startTime) + " ms");
+        }
+    }
+
+    public void save() {
+        if (!isLoaded) {
+            return;
+        }
+
+        StringBuilder index = new StringBuilder(pages.size() * 48);
+        for (Entry<Long, Page> entry : pages.entrySet()) {
+            Page page = entry.getValue();
+            index.append(entry.getKey()).append(Constant.SEPARATOR1).append(page.time).append(Constant.SEPARATOR1).append(page.size).append(
+                    Constant.SEPARATOR1).append(page.domainType.name()).append(Constant.NEWLINE);
+        }
+        try {
+            IO.write(indexPath, index.toString());
+        } catch (Exception e) {
+            if (Debug.DEBUG) {
+                Debug.print(e);
+            }
+        }
+    }
+
+    private static class Page {
+
+        final long time, size;
+        final DomainType domainType;
+
+        Page(long time, long size, DomainType domainType) {
+            this.time = time;
+            this.size = size;
+            this.domainType = domainType;
+        }
+
+        long age() {
+            return System.currentTimeMillis() - time;
+        }
+    }
+}
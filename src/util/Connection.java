@@ -4,13 +4,13 @@ import debug.Debug;
 import java.awt.Desktop;
 import java.awt.Desktop.Action;
 import java.io.BufferedOutputStream;
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.Reader;
 import java.net.Authenticator;
 import java.net.HttpURLConnection;
 import java.net.InetAddress;
@@ -22,16 +22,28 @@ import java.net.URI;
 import java.net.URL;
 import java.net.URLEncoder;
 import java.util.Arrays;
-import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Queue;
 import java.util.Timer;
 import java.util.TimerTask;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.Checksum;
+import java.util.zip.ZipInputStream;
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.HttpsURLConnection;
 import javax.net.ssl.SSLSession;
@@ -44,7 +56,12 @@ public class Connection {
 
     private static GuiListener guiListener;
     private static final StatusBar statusBar = new StatusBar();
-    private static final Collection<Long> cache = new ConcurrentSkipListSet<Long>();
+    private static final long MAX_STALE_PAGE_AGE = 604800000;
+    private static final CacheIndex cacheIndex = new CacheIndex(Constant.CACHE_DIR + Constant.CACHE_INDEX);
+    private static final MemoryCache<Long> memoryCache = new MemoryCache<Long>(16 * 1024 * 1024);
+    private static final PageStore pageStore, validatorStore;
+    private static final ConcurrentMap<String, SourceCodeDownload> downloads = new ConcurrentHashMap<String, SourceCodeDownload>(16);
+    private static final AtomicLong numDownloads = new AtomicLong(), numJoinedDownloads = new AtomicLong();
     private static final Lock downloadLinkInfoProxyLock = new ReentrantLock();
     private static final AtomicBoolean downloadLinkInfoFail = new AtomicBoolean();
     private static int numDownloadLinkInfoDeproxiers;
@@ -53,6 +70,23 @@ public class Connection {
     private static volatile String downloadLinkInfoFailUrl;
     private static volatile Timer clearCacheTimer;
 
+    static {
+        PageStore pages = null, validators = null;
+        try {
+            String storeDir = Constant.CACHE_DIR + Constant.PAGE_STORE_DIR;
+            pages = new SegmentPageStore(storeDir + "pages", 65536, 64L * 1024 * 1024);
+            validators = new SegmentPageStore(storeDir + "validators", 65536, 4L * 1024 * 1024);
+        } catch (Exception e) {
+            if (Debug.DEBUG) {
+                Debug.print(e);
+            }
+            pages = new FilePageStore(Constant.CACHE_DIR, Constant.HTML);
+            validators = new FilePageStore(Constant.CACHE_DIR, Constant.VALIDATORS);
+        }
+        pageStore = pages;
+        validatorStore = validators;
+    }
+
     public static void init(GuiListener listener) {
         guiListener = listener;
         Str.addListener(new UpdateListener() {
@@ -127,7 +161,7 @@ public class Connection {
     }
 
     public static String getUpdateFile(String file, boolean showStatus) throws Exception {
-        return getSourceCode(file, DomainType.UPDATE, showStatus, true, false, IOException.class).trim();
+        return getCachedSourceCode(file, DomainType.UPDATE, showStatus, true, false, true, IOException.class).trim();
     }
 
     public static String getSourceCode(String url, DomainType domainType) throws Exception {
@@ -139,6 +173,11 @@ public class Connection {
     }
 
     public static String getSourceCode(String url, DomainType domainType, boolean showStatus, boolean emptyOK, Class<?>... throwables) throws Exception {
+        return getCachedSourceCode(url, domainType, showStatus, emptyOK, true, false, throwables);
+    }
+
+    private static String getCachedSourceCode(String url, DomainType domainType, boolean showStatus, boolean emptyOK, boolean compress, boolean revalidate,
+            Class<?>... throwables) throws Exception {
         if (url == null || url.isEmpty()) {
             if (Debug.DEBUG) {
                 Debug.println("Internal error: the URL is null or empty.");
@@ -147,67 +186,195 @@ public class Connection {
         }
 
         Long urlHashCode = Str.hashCode(url);
-        String sourceCode, sourceCodePath = Constant.CACHE_DIR + urlHashCode + Constant.HTML;
-        if (cache.contains(urlHashCode)) {
+        String sourceCode;
+        if (!revalidate && (sourceCode = cachedSourceCode(url, urlHashCode, domainType)) != null) {
+            return sourceCode;
+        }
+
+        SourceCodeDownload download = download(url, domainType, showStatus, emptyOK, compress, urlHashCode, throwables);
+        try {
+            return AbstractWorker.get(download.worker);
+        } catch (Exception e) {
+            download.leave();
+            throw e;
+        }
+    }
+
+    public static Future<String> fetchAsync(String url, DomainType domainType) {
+        return fetchAsync(url, domainType, false, false);
+    }
+
+    public static Future<String> fetchAsync(String url, DomainType domainType, boolean showStatus, boolean emptyOK, Class<?>... throwables) {
+        return fetchAsync(url, domainType, showStatus, emptyOK, (Runnable) null, throwables);
+    }
+
+    public static Future<String> fetchAsync(String url, DomainType domainType, boolean showStatus, boolean emptyOK, Runnable doneAction,
+            Class<?>... throwables) {
+        if (url == null || url.isEmpty()) {
             if (Debug.DEBUG) {
-                Debug.println("fetching " + url);
+                Debug.println("Internal error: the URL is null or empty.");
             }
-            try {
-                sourceCode = IO.read(sourceCodePath);
-            } catch (Exception e) {
+            if (doneAction != null) {
+                doneAction.run();
+            }
+            return new PageFuture("", null);
+        }
+
+        Long urlHashCode = Str.hashCode(url);
+        String sourceCode = cachedSourceCode(url, urlHashCode, domainType);
+        SourceCodeDownload download = sourceCode == null ? download(url, domainType, showStatus, emptyOK, true, urlHashCode, throwables) : null;
+        if (doneAction != null) {
+            if (download == null) {
+                doneAction.run();
+            } else {
+                download.worker.addDoneAction(doneAction);
+            }
+        }
+        return new PageFuture(sourceCode, download);
+    }
+
+    private static String cachedSourceCode(String url, Long urlHashCode, DomainType domainType) {
+        if (!cacheIndex.isFresh(urlHashCode)) {
+            return null;
+        }
+
+        if (Debug.DEBUG) {
+            Debug.println("fetching " + url);
+        }
+        String sourceCode;
+        if ((sourceCode = memoryCache.get(urlHashCode)) != null) {
+            return sourceCode;
+        }
+        try {
+            byte[] page = pageStore.read(urlHashCode);
+            if (page != null) {
+                memoryCache.put(urlHashCode, sourceCode = PageCodec.decode(page, domainType));
+                return sourceCode;
+            }
+        } catch (Exception e) {
+            if (Debug.DEBUG) {
+                Debug.print(e);
+            }
+            pageStore.remove(urlHashCode);
+        }
+        return null;
+    }
+
+    private static SourceCodeDownload download(String url, DomainType domainType, boolean showStatus, boolean emptyOK, boolean compress, Long urlHashCode,
+            Class<?>... throwables) {
+        String downloadKey = downloadKey(url, domainType, emptyOK, compress, throwables);
+        while (true) {
+            SourceCodeDownload download;
+            if ((download = downloads.get(downloadKey)) == null) {
+                CacheEntry cacheEntry = new CacheEntry(urlHashCode, domainType);
+                AtomicBoolean downloadShowStatus = new AtomicBoolean(showStatus);
+                SourceCodeDownload newDownload = new SourceCodeDownload(sourceCodeWorker(url, domainType, downloadShowStatus, emptyOK, compress, cacheEntry,
+                        throwables), cacheEntry, urlHashCode, domainType, downloadKey, downloadShowStatus);
+                if ((download = downloads.putIfAbsent(downloadKey, newDownload)) == null) {
+                    numDownloads.incrementAndGet();
+                    if (Debug.DEBUG) {
+                        Debug.println((cacheEntry.isRevalidating() ? "revalidating " : "") + url);
+                    }
+                    newDownload.worker.execute();
+                    return newDownload;
+                }
+            }
+            if (download.join()) {
+                numJoinedDownloads.incrementAndGet();
+                if (showStatus) {
+                    download.showStatus.set(true);
+                }
                 if (Debug.DEBUG) {
-                    Debug.print(e);
+                    Debug.println("joining in-flight download of " + url);
                 }
-                IO.fileOp(sourceCodePath, IO.RM_FILE);
-                addToCache(sourceCode = getSourceCode(url, domainType, showStatus, emptyOK, true, throwables), sourceCodePath, urlHashCode);
+                return download;
             }
-        } else {
-            addToCache(sourceCode = getSourceCode(url, domainType, showStatus, emptyOK, true, throwables), sourceCodePath, urlHashCode);
+            downloads.remove(downloadKey, download);
         }
+    }
 
-        return sourceCode;
+    private static String downloadKey(String url, DomainType domainType, boolean emptyOK, boolean compress, Class<?>... throwables) {
+        // Only requests with the same error handling and cache semantics can share a download; showStatus is upgraded in place by download()
+        StringBuilder downloadKey = new StringBuilder(url.length() + 64).append(url).append(' ').append(domainType).append(' ').append(emptyOK).append(
+                ' ').append(compress);
+        for (Class<?> throwable : throwables) {
+            downloadKey.append(' ').append(throwable.getName());
+        }
+        return downloadKey.toString();
     }
 
-    public static String getSourceCode(final String url, final DomainType domainType, final boolean showStatus, final boolean emptyOK, final boolean compress,
-            final Class<?>... throwables) throws Exception {
+    public static String getSourceCode(String url, DomainType domainType, boolean showStatus, boolean emptyOK, boolean compress, Class<?>... throwables)
+            throws Exception {
         if (Debug.DEBUG) {
             Debug.println(url);
         }
-        return (new AbstractWorker<String>() {
+        return sourceCodeWorker(url, domainType, new AtomicBoolean(showStatus), emptyOK, compress, null, throwables).executeAndGet();
+    }
+
+    private static AbstractWorker<String> sourceCodeWorker(final String url, final DomainType domainType, final AtomicBoolean showStatus,
+            final boolean emptyOK, final boolean compress, final CacheEntry cacheEntry, final Class<?>... throwables) {
+        return new AbstractWorker<String>() {
             @Override
             protected String doInBackground() throws Exception {
                 HttpURLConnection connection = null;
-                BufferedReader br = null;
-                StringBuilder source = new StringBuilder(8192);
+                Proxy proxy = null;
+                int responseCode = -1;
+                HostLimiter.Host host = null;
+                Reader reader = null;
+                StringBuilder source = null;
                 try {
-                    Proxy proxy = getProxy(domainType);
-                    String statusMsg = checkProxyAndSetStatusBar(proxy, url, showStatus, this);
+                    proxy = getProxy(domainType);
+                    String statusMsg = checkProxyAndSetStatusBar(proxy, url, showStatus.get(), this);
                     if (isCancelled()) {
                         return "";
                     }
 
-                    connection = (HttpURLConnection) (new URL(url)).openConnection(proxy);
+                    URL pageUrl = new URL(url);
+                    HostLimiter.Host pageHost = HostLimiter.host(pageUrl, proxy);
+                    pageHost.acquire();
+                    host = pageHost;
+                    connection = (HttpURLConnection) pageUrl.openConnection(proxy);
                     if (isCancelled()) {
                         return "";
                     }
 
                     setConnectionProperties(connection, compress, null);
+                    if (cacheEntry != null) {
+                        cacheEntry.setConditionalHeaders(connection);
+                    }
                     connection.connect();
-                    br = IO.bufferedReader(connection.getContentEncoding(), connection.getInputStream());
+                    responseCode = connection.getResponseCode();
+                    if (!proxy.equals(Proxy.NO_PROXY)) {
+                        ProxyChecker.alive(proxy);
+                    }
+
+                    if (cacheEntry != null) {
+                        if (responseCode == HttpURLConnection.HTTP_NOT_MODIFIED && cacheEntry.isRevalidating()) {
+                            IO.close(connection.getInputStream());
+                            String cachedSourceCode = cacheEntry.sourceCode();
+                            if (cachedSourceCode != null) {
+                                cacheEntry.notModified = true;
+                                return cachedSourceCode;
+                            }
+                            host.release();
+                            host = null;
+                            return sourceCodeWorker(url, domainType, showStatus, emptyOK, compress, null, throwables).executeAndGet();
+                        }
+                        cacheEntry.setValidators(connection);
+                    }
+                    String contentEncoding = connection.getContentEncoding();
+                    reader = IO.reader(contentEncoding, connection.getInputStream());
                     if (isCancelled()) {
                         return "";
                     }
 
-                    if (showStatus) {
-                        setStatusBar(Str.str("transferring") + ' ' + statusMsg);
+                    if (showStatus.get()) {
+                        setStatusBar(Str.str("transferring") + ' ' + (statusMsg == null ? getShortUrl(url, true) : statusMsg));
                     }
 
-                    String line;
-                    while ((line = br.readLine()) != null) {
-                        if (isCancelled()) {
-                            return "";
-                        }
-                        source.append(line).append(Constant.NEWLINE);
+                    source = new StringBuilder(sourceCapacity(connection.getContentLength(), contentEncoding));
+                    if (!IO.readLines(reader, source, this)) {
+                        return "";
                     }
 
                     checkConnectionResponse(connection, url);
@@ -215,6 +382,13 @@ public class Connection {
                         throw new IOException("empty source code");
                     }
                 } catch (IOException e) {
+                    if (responseCode == -1 && proxy != null && !proxy.equals(Proxy.NO_PROXY)) {
+                        if (Debug.DEBUG) {
+                            Debug.print(e);
+                        }
+                        ProxyChecker.dead(proxy);
+                        throw proxyException(url);
+                    }
                     String errorMsg = IO.consumeErrorStream(connection);
                     for (Class<?> throwable : throwables) {
                         if (throwable.isInstance(e)) {
@@ -224,26 +398,37 @@ public class Connection {
                     if (Debug.DEBUG) {
                         Debug.print(e);
                     }
-                    if (domainType == DomainType.DOWNLOAD_LINK_INFO && showStatus) {
+                    if (domainType == DomainType.DOWNLOAD_LINK_INFO && showStatus.get()) {
                         String downloadLinkInfoUrl = deproxyDownloadLinkInfoProxyUrl(url);
                         if (downloadLinkInfoUrl != null) {
                             selectNextDownloadLinkInfoProxy();
-                            return getSourceCode(downloadLinkInfoUrl, domainType, showStatus, emptyOK, throwables);
+                            return getSourceCode(downloadLinkInfoUrl, domainType, true, emptyOK, throwables);
                         } else if (url.startsWith(Str.get(731))) {
                             downloadLinkInfoFail.set(true);
                         }
                     }
                     throw new ConnectionException(error(url), e, connection == null ? null : connection.getURL().toString());
                 } finally {
-                    if (showStatus) {
+                    if (showStatus.get()) {
                         unsetStatusBar();
                     }
-                    IO.close(br);
+                    IO.close(reader);
+                    if (host != null) {
+                        host.release();
+                    }
                 }
 
-                return domainType == DomainType.UPDATE ? source.toString() : Regex.replaceAll(source.toString(), 741);
+                return domainType == DomainType.UPDATE ? source.toString() : Regex.replaceAll(source, 741);
             }
-        }).executeAndGet();
+        };
+    }
+
+    private static int sourceCapacity(int contentLength, String contentEncoding) {
+        if (contentLength <= 0) {
+            return 8192;
+        }
+        long capacity = (contentEncoding == null ? contentLength : contentLength * 4L) + contentLength / 32 + 16;
+        return (int) Math.min(capacity, 16 * 1024 * 1024);
     }
 
     public static String error(String url) {
@@ -400,15 +585,27 @@ public class Connection {
         }
     }
 
-    private static void addToCache(String sourceCode, String sourceCodePath, Long urlHashCode) {
+    private static void addToCache(String sourceCode, CacheEntry cacheEntry, Long urlHashCode, DomainType domainType) {
         try {
-            IO.write(sourceCodePath, sourceCode);
-            cache.add(urlHashCode);
+            long size;
+            if (cacheEntry.notModified) {
+                size = cacheIndex.size(urlHashCode);
+            } else {
+                size = pageStore.write(urlHashCode, PageCodec.encode(sourceCode, domainType));
+                if (cacheEntry.validators.isEmpty()) {
+                    validatorStore.remove(urlHashCode);
+                } else {
+                    validatorStore.write(urlHashCode, cacheEntry.validators.getBytes(Constant.UTF8));
+                }
+            }
+            memoryCache.put(urlHashCode, sourceCode);
+            cacheIndex.put(urlHashCode, size, domainType);
         } catch (Exception e) {
             if (Debug.DEBUG) {
                 Debug.print(e);
             }
-            IO.fileOp(sourceCodePath, IO.RM_FILE);
+            pageStore.remove(urlHashCode);
+            validatorStore.remove(urlHashCode);
         }
     }
 
@@ -422,8 +619,10 @@ public class Connection {
 
     public static void removeFromCache(String url) {
         Long urlHashCode = Str.hashCode(url);
-        IO.fileOp(Constant.CACHE_DIR + urlHashCode + Constant.HTML, IO.RM_FILE);
-        cache.remove(urlHashCode);
+        pageStore.remove(urlHashCode);
+        validatorStore.remove(urlHashCode);
+        cacheIndex.remove(urlHashCode);
+        memoryCache.remove(urlHashCode);
     }
 
     public static void clearCache() {
@@ -435,56 +634,128 @@ public class Connection {
             @Override
             public void run() {
                 clearCacheHelper();
+                pageStore.flush();
+                validatorStore.flush();
             }
         }, 3600000, 3600000);
     }
 
     private static void clearCacheHelper() {
-        for (File file : IO.listFiles(Constant.CACHE_DIR)) {
-            if (file.getName().endsWith(Constant.HTML)) {
-                IO.fileOp(file, IO.RM_FILE);
+        for (Long urlHashCode : cacheIndex.stalePages()) {
+            memoryCache.remove(urlHashCode);
+            if (cacheIndex.age(urlHashCode) > MAX_STALE_PAGE_AGE || !validatorStore.contains(urlHashCode)) {
+                pageStore.remove(urlHashCode);
+                validatorStore.remove(urlHashCode);
+                cacheIndex.remove(urlHashCode);
             }
         }
-        cache.clear();
+        cacheIndex.save();
         downloadLinkInfoFail.set(false);
     }
 
+    public static void loadCache() {
+        long startTime = System.currentTimeMillis();
+        cacheIndex.load();
+        for (File file : IO.listFiles(Constant.CACHE_DIR)) {
+            String fileName = file.getName();
+            if (file.isDirectory() || file.lastModified() >= startTime || fileName.equals(Constant.CACHE_INDEX)) {
+                continue;
+            }
+
+            int extensionIndex = fileName.lastIndexOf('.');
+            if (extensionIndex != -1) {
+                String extension = fileName.substring(extensionIndex);
+                if (pageStore instanceof FilePageStore && (extension.equals(Constant.HTML) || extension.equals(Constant.VALIDATORS))) {
+                    try {
+                        if (cacheIndex.contains(Long.valueOf(fileName.substring(0, extensionIndex)))) {
+                            continue;
+                        }
+                    } catch (NumberFormatException e) {
+                        if (Debug.DEBUG) {
+                            Debug.print(e);
+                        }
+                    }
+                }
+            }
+            IO.fileOp(file, IO.RM_FILE);
+        }
+    }
+
+    public static void closeCache() {
+        cacheIndex.save();
+        pageStore.close();
+        validatorStore.close();
+    }
+
+    public static String cacheStats() {
+        return "page cache: " + cacheIndex.numPages() + " pages, " + cacheIndex.size() + " bytes, memory tier: " + memoryCache.stats() + ", "
+                + pageStore.stats() + ", " + validatorStore.stats() + Constant.NEWLINE + "downloads: " + numDownloads.get() + " started, "
+                + numJoinedDownloads.get() + " joined in flight" + Constant.NEWLINE + PageCodec.stats();
+    }
+
     public static void saveData(String url, String outputPath, DomainType domainType) throws Exception {
         saveData(url, outputPath, domainType, true);
     }
 
     public static void saveData(final String url, final String outputPath, final DomainType domainType, final boolean showStatus) throws Exception {
-        saveData(url, outputPath, domainType, showStatus, null);
+        saveData(url, outputPath, null, null, domainType, showStatus, null);
+    }
+
+    public static void saveData(String url, String outputPath, DomainType domainType, boolean showStatus, String referer) throws Exception {
+        saveData(url, outputPath, null, null, domainType, showStatus, referer);
+    }
+
+    public static void saveData(String url, String outputPath, DomainType domainType, boolean showStatus, Checksum checksum) throws Exception {
+        saveData(url, outputPath, null, checksum, domainType, showStatus, null);
     }
 
-    public static void saveData(final String url, final String outputPath, final DomainType domainType, final boolean showStatus, final String referer)
+    public static String saveZipEntry(String url, String outputPath, Pattern zipEntryName, DomainType domainType, boolean showStatus, String referer)
             throws Exception {
+        return saveData(url, outputPath, zipEntryName, null, domainType, showStatus, referer);
+    }
+
+    private static String saveData(final String url, final String outputPath, final Pattern zipEntryName, final Checksum checksum,
+            final DomainType domainType, final boolean showStatus, final String referer) throws Exception {
         if (Debug.DEBUG) {
             Debug.println(url);
         }
-        (new Worker() {
+        return (new AbstractWorker<String>() {
             @Override
-            protected void doWork() throws Exception {
+            protected String doInBackground() throws Exception {
                 HttpURLConnection connection = null;
+                Proxy proxy = null;
+                int responseCode = -1;
+                HostLimiter.Host host = null;
                 InputStream is = null;
                 OutputStream os = null;
                 boolean outputStarted = false;
                 try {
-                    Proxy proxy = getProxy(domainType);
+                    proxy = getProxy(domainType);
                     String statusMsg = checkProxyAndSetStatusBar(proxy, url, showStatus, this);
                     if (isCancelled()) {
-                        return;
+                        return null;
                     }
 
-                    connection = (HttpURLConnection) (new URL(url)).openConnection(proxy);
+                    URL dataUrl = new URL(url);
+                    HostLimiter.Host dataHost = HostLimiter.host(dataUrl, proxy);
+                    dataHost.acquire();
+                    host = dataHost;
+                    connection = (HttpURLConnection) dataUrl.openConnection(proxy);
                     if (isCancelled()) {
-                        return;
+                        return null;
                     }
 
                     setConnectionProperties(connection, false, referer);
+                    responseCode = connection.getResponseCode();
+                    if (!proxy.equals(Proxy.NO_PROXY)) {
+                        ProxyChecker.alive(proxy);
+                    }
                     is = connection.getInputStream();
+                    if (checksum != null) {
+                        is = new CheckedInputStream(is, checksum);
+                    }
                     if (isCancelled()) {
-                        return;
+                        return null;
                     }
 
                     os = new BufferedOutputStream(new FileOutputStream(outputPath)) {
@@ -502,21 +773,42 @@ public class Connection {
                     }
 
                     outputStarted = true;
-                    IO.write(is, os);
+                    String savedZipEntryName = null;
+                    if (zipEntryName == null) {
+                        IO.write(is, os);
+                    } else {
+                        ZipInputStream zis = new ZipInputStream(is);
+                        is = zis;
+                        if ((savedZipEntryName = IO.unzipFirst(zis, zipEntryName, os)) == null) {
+                            IO.close(os);
+                            IO.fileOp(outputPath, IO.RM_FILE);
+                        }
+                    }
 
                     checkConnectionResponse(connection, url);
+                    return savedZipEntryName;
                 } catch (Exception e) {
                     IO.consumeErrorStream(connection);
                     if (outputStarted) {
                         IO.close(os);
                         IO.fileOp(outputPath, IO.RM_FILE);
                     }
+                    if (e instanceof IOException && responseCode == -1 && proxy != null && !proxy.equals(Proxy.NO_PROXY)) {
+                        if (Debug.DEBUG) {
+                            Debug.print(e);
+                        }
+                        ProxyChecker.dead(proxy);
+                        throw proxyException(url);
+                    }
                     throw e;
                 } finally {
                     if (showStatus) {
                         unsetStatusBar();
                     }
                     IO.close(is, os);
+                    if (host != null) {
+                        host.release();
+                    }
                 }
             }
         }).executeAndGet();
@@ -551,59 +843,25 @@ public class Connection {
         String statusMsg;
         if (showStatus) {
             final Thread runner = Thread.currentThread();
-            callingWorker.doneAction = new Runnable() {
+            callingWorker.addDoneAction(new Runnable() {
                 @Override
                 public void run() {
                     statusBar.unset(runner);
                 }
-            };
+            });
             statusMsg = getShortUrl(url, true);
         } else {
             statusMsg = null;
         }
 
         if (!proxy.equals(Proxy.NO_PROXY)) {
-            InputStream is = null;
-            HttpURLConnection connection = null;
-            try {
-                if (showStatus) {
-                    InetSocketAddress socketAddress = (InetSocketAddress) proxy.address();
-                    statusMsg += ' ' + Str.str("proxing", socketAddress.getAddress().getHostAddress() + ':' + socketAddress.getPort());
-                    setStatusBar(Str.str("connecting") + ' ' + statusMsg);
-                }
-
-                connection = (HttpURLConnection) (new URL(url)).openConnection(proxy);
-                if (callingWorker.isCancelled()) {
-                    return "";
-                }
-
-                setConnectionProperties(connection, false, null);
-                is = connection.getInputStream();
-                if (callingWorker.isCancelled()) {
-                    return "";
-                }
-
-                if (showStatus) {
-                    setStatusBar(Str.str("transferring") + ' ' + statusMsg);
-                }
-
-                is.read();
-                if (callingWorker.isCancelled()) {
-                    return "";
-                }
-
-                checkConnectionResponse(connection, url);
-            } catch (Exception e) {
-                IO.consumeErrorStream(connection);
-                if (Debug.DEBUG) {
-                    Debug.print(e);
-                }
-                throw new ProxyException(Str.str("proxyProblem", getShortUrl(url, false)) + ' ' + Str.str("proxySolution"));
-            } finally {
-                if (showStatus) {
-                    unsetStatusBar();
-                }
-                IO.close(is);
+            if (showStatus) {
+                InetSocketAddress socketAddress = (InetSocketAddress) proxy.address();
+                statusMsg += ' ' + Str.str("proxing", socketAddress.getAddress().getHostAddress() + ':' + socketAddress.getPort());
+                setStatusBar(Str.str("connecting") + ' ' + statusMsg);
+            }
+            if (!ProxyChecker.isAlive(proxy, guiListener.getTimeout() * 1000)) {
+                throw proxyException(url);
             }
         }
 
@@ -614,6 +872,10 @@ public class Connection {
         return statusMsg;
     }
 
+    private static ProxyException proxyException(String url) {
+        return new ProxyException(Str.str("proxyProblem", getShortUrl(url, false)) + ' ' + Str.str("proxySolution"));
+    }
+
     public static String getProxy(String proxy) {
         if (!Regex.isMatch(proxy, 250)) {
             return null;
@@ -727,6 +989,177 @@ public class Connection {
         }
     }
 
+    private static class SourceCodeDownload {
+
+        final AbstractWorker<String> worker;
+        final AtomicBoolean showStatus;
+        private int numWaiters = 1;
+
+        SourceCodeDownload(final AbstractWorker<String> worker, final CacheEntry cacheEntry, final Long urlHashCode, final DomainType domainType,
+                final String downloadKey, AtomicBoolean showStatus) {
+            this.worker = worker;
+            this.showStatus = showStatus;
+            worker.addDoneAction(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        if (!worker.isCancelled()) {
+                            addToCache(worker.get(), cacheEntry, urlHashCode, domainType);
+                        }
+                    } catch (Exception e) {
+                        if (Debug.DEBUG) {
+                            Debug.println("not caching failed download: " + e);
+                        }
+                    } finally {
+                        downloads.remove(downloadKey, SourceCodeDownload.this);
+                    }
+                }
+            });
+        }
+
+        synchronized boolean join() {
+            if (numWaiters == 0) {
+                return false;
+            }
+            ++numWaiters;
+            return true;
+        }
+
+        synchronized boolean leave() {
+            if (--numWaiters == 0) {
+                worker.cancel(true);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private static class PageFuture implements Future<String> {
+
+        private final String sourceCode;
+        private final SourceCodeDownload download;
+        private final AtomicBoolean isCancelled = new AtomicBoolean();
+
+        PageFuture(String sourceCode, SourceCodeDownload download) {
+            this.sourceCode = sourceCode;
+            this.download = download;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            if (download == null || download.worker.isDone()) {
+                return false;
+            }
+            if (isCancelled.compareAndSet(false, true)) {
+                download.leave();
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return isCancelled.get() || (download != null && download.worker.isCancelled());
+        }
+
+        @Override
+        public boolean isDone() {
+            return download == null || isCancelled.get() || download.worker.isDone();
+        }
+
+        @Override
+        public String get() throws InterruptedException, ExecutionException {
+            if (download == null) {
+                return sourceCode;
+            }
+            if (isCancelled.get()) {
+                throw new CancellationException();
+            }
+            return download.worker.get();
+        }
+
+        @Override
+        public String get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            if (download == null) {
+                return sourceCode;
+            }
+            if (isCancelled.get()) {
+                throw new CancellationException();
+            }
+            return download.worker.get(timeout, unit);
+        }
+    }
+
+    private static class CacheEntry {
+
+        private static final String IF_NONE_MATCH = "If-None-Match", IF_MODIFIED_SINCE = "If-Modified-Since";
+        private final Map<String, String> conditionalHeaders = new HashMap<String, String>(4);
+        private final Long urlHashCode;
+        private final DomainType domainType;
+        private byte[] page;
+        volatile boolean notModified;
+        volatile String validators = "";
+
+        CacheEntry(Long urlHashCode, DomainType domainType) {
+            this.urlHashCode = urlHashCode;
+            this.domainType = domainType;
+            try {
+                byte[] cachedValidators = validatorStore.read(urlHashCode);
+                if (cachedValidators == null || (page = pageStore.read(urlHashCode)) == null) {
+                    return;
+                }
+                for (String header : Regex.split(new String(cachedValidators, Constant.UTF8), Constant.NEWLINE)) {
+                    int separatorIndex = header.indexOf(':');
+                    if (separatorIndex != -1) {
+                        conditionalHeaders.put(header.substring(0, separatorIndex).trim(), header.substring(separatorIndex + 1).trim());
+                    }
+                }
+            } catch (Exception e) {
+                if (Debug.DEBUG) {
+                    Debug.print(e);
+                }
+                conditionalHeaders.clear();
+            }
+        }
+
+        boolean isRevalidating() {
+            return !conditionalHeaders.isEmpty();
+        }
+
+        String sourceCode() {
+            // Only a 304 needs the stored page, and the worker's result is shared by every joiner, so it is decoded at most once per download
+            String sourceCode = memoryCache.get(urlHashCode);
+            if (sourceCode == null) {
+                try {
+                    sourceCode = PageCodec.decode(page, domainType);
+                } catch (Exception e) {
+                    if (Debug.DEBUG) {
+                        Debug.print(e);
+                    }
+                }
+            }
+            page = null;
+            return sourceCode;
+        }
+
+        void setConditionalHeaders(HttpURLConnection connection) {
+            for (Entry<String, String> conditionalHeader : conditionalHeaders.entrySet()) {
+                connection.setRequestProperty(conditionalHeader.getKey(), conditionalHeader.getValue());
+            }
+        }
+
+        void setValidators(HttpURLConnection connection) {
+            StringBuilder newValidators = new StringBuilder(128);
+            String eTag = connection.getHeaderField("ETag"), lastModified = connection.getHeaderField("Last-Modified");
+            if (eTag != null && !eTag.isEmpty()) {
+                newValidators.append(IF_NONE_MATCH).append(": ").append(eTag).append(Constant.NEWLINE);
+            }
+            if (lastModified != null && !lastModified.isEmpty()) {
+                newValidators.append(IF_MODIFIED_SINCE).append(": ").append(lastModified).append(Constant.NEWLINE);
+            }
+            validators = newValidators.toString();
+        }
+    }
+
     public static void email(String subject, String body) throws IOException {
         email("mailto:?subject=" + encodeMailtoArg(subject) + "&body=" + encodeMailtoArg(body));
     }
@@ -37,7 +37,8 @@ public class Constant implements IOConstant {
     public static final int TITLE_INDENT_LEN = TITLE_INDENT.length();
     public static final String HTML_FONT = "<font face=\"Verdana, Geneva, sans-serif\" size=\"4\">";
     public static final String BLANK_HTML_PAGE = "<html><head></head><body marginwidth=\"10\"><br></body></html>";
-    public static final String TXT = ".txt", HTML = ".html", TORRENT = ".torrent";
+    public static final String TXT = ".txt", HTML = ".html", TORRENT = ".torrent", VALIDATORS = ".validators";
+    public static final String CACHE_INDEX = "cacheIndex" + TXT, PAGE_STORE_DIR = "pageStore" + FILE_SEPARATOR;
     public static final String DOWNLOAD_LINK_INFO_PROXY_INDEX = "torrentDbProxyIndex" + TXT;
     public static final int UPDATE_FILE_VERSION = 84;
     public static final String UPDATE_FILE = "update" + UPDATE_FILE_VERSION + TXT;
@@ -56,6 +57,10 @@ public class Constant implements IOConstant {
     public static final String PLAYLIST = "playlist2" + TXT;
     public static final String BANNED_DOWNLOAD_IDS = "bannedDownloadIDs";
     public static final String PROXIES = "proxies" + TXT;
+    public static final String TITLE_LINK_CACHE = "titleLinkCache" + TXT;
+    public static final String TITLE_INDEX = "titleIndex" + TXT;
+    public static final String AUTO_COMPLETE_TITLES = "autoCompleteTitles" + TXT;
+    public static final String REGEX_PROFILE = "regexProfile" + TXT;
     public static final String ERROR_LOG = "errorLog" + TXT;
     public static final String NO_PROXY = "NO PROXY";
     public static final String INFINITY = "infinity";
@@ -0,0 +1,64 @@
+package util;
+
+import java.io.File;
+import java.nio.file.Files;
+
+public class FilePageStore implements PageStore {
+
+    private final String dir, extension;
+
+    public FilePageStore(String dir, String extension) {
+        this.dir = dir;
+        this.extension = extension;
+    }
+
+    private File file(Long key) {
+        return new File(dir + key + extension);
+    }
+
+    @Override
+    public byte[] read(Long key) throws Exception {
+        File file = file(key);
+        return file.exists() ? Files.readAllBytes(file.toPath()) : null;
+    }
+
+    @Override
+    public long write(Long key, byte[] page) throws Exception {
+        File file = file(key);
+        IO.write(file, page);
+        return file.length();
+    }
+
+    @Override
+    public boolean contains(Long key) {
+        return file(key).exists();
+    }
+
+    @Override
+    public void remove(Long key) {
+        IO.fileOp(file(key), IO.RM_FILE);
+    }
+
+    private long size() {
+        long size = 0;
+        for (File file : IO.listFiles(dir)) {
+            if (file.getName().endsWith(extension)) {
+                size += file.length();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public String stats() {
+        return "per-file " + extension + " store: " + size() + " bytes";
+    }
+}
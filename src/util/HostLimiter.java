@@ -0,0 +1,80 @@
+package util;
+
+import java.net.Proxy;
+import java.net.URL;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class HostLimiter {
+
+    // Limits concurrent requests per host; connection reuse itself is left to HttpURLConnection's keep-alive cache
+    public static final int MAX_CONNECTIONS_PER_HOST = 6;
+    private static final ConcurrentMap<String, Host> hosts = new ConcurrentHashMap<String, Host>(16);
+
+    public static Host host(URL url, Proxy proxy) {
+        String key = url.getProtocol() + "://" + url.getHost() + ':' + (url.getPort() == -1 ? url.getDefaultPort() : url.getPort()) + (proxy.equals(
+                Proxy.NO_PROXY) ? "" : " " + proxy.address());
+        Host host = hosts.get(key);
+        if (host == null) {
+            Host newHost = new Host();
+            if ((host = hosts.putIfAbsent(key, newHost)) == null) {
+                host = newHost;
+            }
+        }
+        return host;
+    }
+
+    public static String stats() {
+        long numRequests = 0, numWaits = 0, waitTime = 0;
+        for (Host host : hosts.values()) {
+            numRequests += host.numRequests.get();
+            numWaits += host.numWaits.get();
+            waitTime += host.waitTime.get();
+        }
+
+        StringBuilder stats = new StringBuilder(1024);
+        stats.append("host limiter (").append(MAX_CONNECTIONS_PER_HOST).append(" per host): ").append(numRequests).append(" requests, ").append(numWaits)
+                .append(" waited for a permit, ").append(waitTime / 1000000).append(" ms total wait");
+        for (Entry<String, Host> entry : new TreeMap<String, Host>(hosts).entrySet()) {
+            Host host = entry.getValue();
+            stats.append(IOConstant.NEWLINE).append('\t').append(entry.getKey()).append(": ").append(host.numRequests.get()).append(" requests, ").append(
+                    host.numWaits.get()).append(" waits, ").append(host.waitTime.get() / 1000000).append(" ms wait");
+        }
+        return stats.toString();
+    }
+
+    public static class Host {
+
+        final AtomicLong numRequests = new AtomicLong(), numWaits = new AtomicLong(), waitTime = new AtomicLong();
+        private final Semaphore permits = new Semaphore(MAX_CONNECTIONS_PER_HOST, true);
+
+        Host() {
+        }
+
+        public void acquire() throws InterruptedException {
+            numRequests.incrementAndGet();
+            if (permits.tryAcquire()) {
+                return;
+            }
+
+            numWaits.incrementAndGet();
+            long startTime = System.nanoTime();
+            try {
+                permits.acquire();
+            } finally {
+                waitTime.addAndGet(System.nanoTime() - startTime);
+            }
+        }
+
+        public void release() {
+            permits.release();
+        }
+    }
+
+    private HostLimiter() {
+    }
+}
@@ -22,10 +22,17 @@ import java.io.ObjectOutputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.io.Reader;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.net.HttpURLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.channels.FileLock;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collection;
@@ -35,6 +42,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Set;
+import java.util.concurrent.Future;
 import java.util.regex.Pattern;
 import java.util.zip.CRC32;
 import java.util.zip.GZIPInputStream;
@@ -42,6 +50,7 @@ import java.util.zip.Inflater;
 import java.util.zip.InflaterInputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
 import javax.xml.bind.DatatypeConverter;
 
 public class IO {
@@ -53,18 +62,32 @@ public class IO {
     }
 
     public static String read(File file) throws Exception {
-        BufferedReader br = null;
-        try {
-            br = new BufferedReader(new InputStreamReader(new FileInputStream(file), IOConstant.UTF8));
-            StringBuilder result = new StringBuilder(4096);
-            String line;
-            while ((line = br.readLine()) != null) {
-                result.append(line).append(IOConstant.NEWLINE);
+        return toNewlines(new String(Files.readAllBytes(file.toPath()), IOConstant.UTF8)).trim();
+    }
+
+    private static String toNewlines(String str) {
+        StringBuilder result = null;
+        for (int i = 0, len = str.length(); i < len; i++) {
+            char c = str.charAt(i);
+            if (c != '\n' && c != '\r') {
+                if (result != null) {
+                    result.append(c);
+                }
+                continue;
             }
-            return result.toString().trim();
-        } finally {
-            close(br);
+
+            int lineEnd = (c == '\r' && i + 1 < len && str.charAt(i + 1) == '\n' ? i + 2 : i + 1);
+            if (result == null) {
+                if (lineEnd - i == IOConstant.NEWLINE.length() && str.regionMatches(i, IOConstant.NEWLINE, 0, lineEnd - i)) {
+                    i = lineEnd - 1;
+                    continue;
+                }
+                result = new StringBuilder(len + 64).append(str, 0, i);
+            }
+            result.append(IOConstant.NEWLINE);
+            i = lineEnd - 1;
         }
+        return result == null ? str : result.toString();
     }
 
     public static List<?> readListFromBase64(String list) {
@@ -80,15 +103,18 @@ public class IO {
 
     public static long checksum(File file) throws Exception {
         CRC32 checksum = new CRC32();
-        InputStream is = null;
+        FileChannel channel = null;
         try {
-            is = new BufferedInputStream(new FileInputStream(file));
-            byte[] bytes = new byte[2048];
-            while (is.read(bytes) != -1) {
-                checksum.update(bytes);
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+            byte[] bytes = new byte[65536];
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            int numBytesRead;
+            while ((numBytesRead = channel.read(buffer)) != -1) {
+                checksum.update(bytes, 0, numBytesRead);
+                buffer.clear();
             }
         } finally {
-            close(is);
+            close(channel);
         }
         return checksum.getValue();
     }
@@ -106,9 +132,14 @@ public class IO {
     }
 
     public static void write(File file, String contents, boolean append) throws Exception {
+        if (!append) {
+            write(file, contents.getBytes(IOConstant.UTF8));
+            return;
+        }
+
         Writer writer = null;
         try {
-            writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, append), IOConstant.UTF8));
+            writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), IOConstant.UTF8));
             writer.write(contents);
             writer.flush();
         } finally {
@@ -117,23 +148,37 @@ public class IO {
     }
 
     public static void write(File file, byte[] contents) throws Exception {
-        OutputStream os = null;
+        File tempFile = tempFile(file);
         try {
-            os = new BufferedOutputStream(new FileOutputStream(file));
-            os.write(contents);
-            os.flush();
+            Files.write(tempFile.toPath(), contents);
+            replace(tempFile, file);
         } finally {
-            close(os);
+            fileOp(tempFile, RM_FILE);
         }
     }
 
     public static void write(File fileIn, File fileOut) throws Exception {
-        InputStream is = null;
-        OutputStream os = null;
+        File tempFile = tempFile(fileOut);
         try {
-            write(is = new BufferedInputStream(new FileInputStream(fileIn)), os = new BufferedOutputStream(new FileOutputStream(fileOut)));
+            Files.copy(fileIn.toPath(), tempFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            replace(tempFile, fileOut);
         } finally {
-            close(is, os);
+            fileOp(tempFile, RM_FILE);
+        }
+    }
+
+    private static File tempFile(File file) throws IOException {
+        return File.createTempFile(file.getName() + "_tmp", null, file.getAbsoluteFile().getParentFile());
+    }
+
+    private static void replace(File tempFile, File file) throws IOException {
+        try {
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            if (Debug.DEBUG) {
+                Debug.print(e);
+            }
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
         }
     }
 
@@ -171,7 +216,7 @@ public class IO {
                     BufferedReader br = null;
                     StringBuilder source = new StringBuilder(1024);
                     try {
-                        br = bufferedReader(connection.getContentEncoding(), is);
+                        br = new BufferedReader(reader(connection.getContentEncoding(), is));
                         String line;
                         while ((line = br.readLine()) != null) {
                             source.append(line).append(IOConstant.NEWLINE);
@@ -200,7 +245,7 @@ public class IO {
         return "";
     }
 
-    public static BufferedReader bufferedReader(String contentEncoding, InputStream inputStream) throws Exception {
+    public static Reader reader(String contentEncoding, InputStream inputStream) throws Exception {
         InputStream is = inputStream;
         if (contentEncoding != null) {
             String encoding = contentEncoding.toLowerCase(Locale.ENGLISH);
@@ -210,7 +255,39 @@ public class IO {
                 is = new InflaterInputStream(is, new Inflater(), 512);
             }
         }
-        return new BufferedReader(new InputStreamReader(is, IOConstant.UTF8));
+        return new InputStreamReader(is, IOConstant.UTF8);
+    }
+
+    public static boolean readLines(Reader reader, StringBuilder lines, Future<?> task) throws IOException {
+        char[] chars = new char[8192];
+        boolean isLineEnd = true, isCarriageReturn = false;
+        int numCharsRead;
+        while ((numCharsRead = reader.read(chars)) != -1) {
+            if (task.isCancelled()) {
+                return false;
+            }
+
+            int lineStart = 0;
+            for (int i = 0; i < numCharsRead; i++) {
+                char c = chars[i];
+                if (c == '\n' || c == '\r') {
+                    lines.append(chars, lineStart, i - lineStart);
+                    if (c == '\r' || !isCarriageReturn) {
+                        lines.append(IOConstant.NEWLINE);
+                    }
+                    lineStart = i + 1;
+                }
+                isCarriageReturn = c == '\r';
+            }
+            lines.append(chars, lineStart, numCharsRead - lineStart);
+            if (numCharsRead != 0) {
+                isLineEnd = lineStart == numCharsRead;
+            }
+        }
+        if (!isLineEnd) {
+            lines.append(IOConstant.NEWLINE);
+        }
+        return true;
     }
 
     public static void write(String fileName, Throwable t) {
@@ -256,6 +333,23 @@ public class IO {
         }
     }
 
+    public static String unzipFirst(ZipInputStream zis, Pattern fileName, OutputStream os) throws Exception {
+        byte[] bytes = new byte[2048];
+        ZipEntry ze;
+        while ((ze = zis.getNextEntry()) != null) {
+            String name = ze.getName();
+            int numBytesRead;
+            if (ze.isDirectory() || !fileName.matcher(name).matches() || (numBytesRead = zis.read(bytes)) == -1) {
+                continue;
+            }
+
+            os.write(bytes, 0, numBytesRead);
+            write(zis, os);
+            return name.substring(Math.max(name.lastIndexOf('/'), name.lastIndexOf('\\')) + 1);
+        }
+        return null;
+    }
+
     private static void mkFile(String[] fileNameParts, int currIndex, int lastIndex, String currPath) {
         String path = currPath + IOConstant.FILE_SEPARATOR + fileNameParts[currIndex];
         File file = new File(path);
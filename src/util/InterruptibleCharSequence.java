@@ -0,0 +1,52 @@
+package util;
+
+import java.util.concurrent.CancellationException;
+
+public class InterruptibleCharSequence implements CharSequence {
+
+    private static final int CHECK_INTERVAL = 4096;
+    private final CharSequence input;
+    private final int regexIndex;
+    private final long timeout, deadline;
+    private int numReads;
+
+    public InterruptibleCharSequence(CharSequence input, int regexIndex, long timeout) {
+        this.input = input;
+        this.regexIndex = regexIndex;
+        this.timeout = timeout;
+        deadline = System.nanoTime() + timeout * 1000000L;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (++numReads == CHECK_INTERVAL) {
+            numReads = 0;
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("regex " + regexIndex + " was interrupted");
+            }
+            if (System.nanoTime() - deadline > 0) {
+                RegexTimeoutException e = new RegexTimeoutException(regexIndex, timeout, input.length());
+                if (regexIndex != Regex.ANY_START_REGEX) {
+                    IO.write(Constant.APP_DIR + Constant.ERROR_LOG, e);
+                }
+                throw e;
+            }
+        }
+        return input.charAt(index);
+    }
+
+    @Override
+    public int length() {
+        return input.length();
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return input.subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+        return input.toString();
+    }
+}
@@ -0,0 +1,93 @@
+package util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class MemoryCache<K> {
+
+    private final long maxSize, maxEntrySize;
+    private final Map<K, String> entries = new LinkedHashMap<K, String>(64, 0.75f, true);
+    private long size;
+    private final AtomicLong hits = new AtomicLong(), misses = new AtomicLong(), evictions = new AtomicLong();
+
+    public MemoryCache(long maxSize) {
+        this.maxSize = maxSize;
+        maxEntrySize = maxSize / 8;
+    }
+
+    private static long size(String str) {
+        return str.length() * 2L;
+    }
+
+    public synchronized String get(K key) {
+        String value = entries.get(key);
+        (value == null ? misses : hits).incrementAndGet();
+        return value;
+    }
+
+    public synchronized void put(K key, String value) {
+        long valueSize = size(value);
+        if (valueSize > maxEntrySize) {
+            remove(key);
+            return;
+        }
+
+        String prevValue = entries.put(key, value);
+        if (prevValue != null) {
+            size -= size(prevValue);
+        }
+        size += valueSize;
+
+        Iterator<Entry<K, String>> entriesIt = entries.entrySet().iterator();
+        while (size > maxSize && entriesIt.hasNext()) {
+            size -= size(entriesIt.next().getValue());
+            entriesIt.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    public synchronized void remove(K key) {
+        String value = entries.remove(key);
+        if (value != null) {
+            size -= size(value);
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        size = 0;
+    }
+
+    public synchronized int numEntries() {
+        return entries.size();
+    }
+
+    public synchronized long size() {
+        return size;
+    }
+
+    public long hits() {
+        return hits.get();
+    }
+
+    public long misses() {
+        return misses.get();
+    }
+
+    public long evictions() {
+        return evictions.get();
+    }
+
+    public double hitRatio() {
+        long numHits = hits.get(), numLookups = numHits + misses.get();
+        return numLookups == 0 ? 0 : numHits / (double) numLookups;
+    }
+
+    public String stats() {
+        return numEntries() + " entries, " + size() + '/' + maxSize + " bytes, " + hits() + " hits, " + misses() + " misses (" + String.format("%.1f", hitRatio()
+                * 100) + "% hit ratio), " + evictions() + " evictions";
+    }
+}
@@ -0,0 +1,180 @@
+package util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+import listener.DomainType;
+
+public class PageCodec {
+
+    private static final int HEADER_SIZE = 10, TRAILER_SIZE = 8, MAX_DEFLATE_RATIO = 1032, MAX_PAGE_SIZE = 64 * 1024 * 1024;
+    private static final byte[] HEADER = {(byte) 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    private static final Queue<Deflater> deflaters = new ConcurrentLinkedQueue<Deflater>();
+    private static final Queue<Inflater> inflaters = new ConcurrentLinkedQueue<Inflater>();
+    private static final Map<DomainType, Stats> stats = new EnumMap<DomainType, Stats>(DomainType.class);
+
+    static {
+        for (DomainType domainType : DomainType.values()) {
+            stats.put(domainType, new Stats());
+        }
+    }
+
+    public static byte[] encode(String page, DomainType domainType) throws Exception {
+        byte[] bytes = page.getBytes(Constant.UTF8);
+        ByteArrayOutputStream encodedPage = new ByteArrayOutputStream(bytes.length / 4 + HEADER_SIZE + TRAILER_SIZE);
+        encodedPage.write(HEADER);
+
+        Deflater deflater = deflaters.poll();
+        if (deflater == null) {
+            deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        }
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+            byte[] buf = new byte[8192];
+            while (!deflater.finished()) {
+                encodedPage.write(buf, 0, deflater.deflate(buf));
+            }
+        } finally {
+            deflater.reset();
+            deflaters.offer(deflater);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        writeInt(encodedPage, (int) crc.getValue());
+        writeInt(encodedPage, bytes.length);
+
+        byte[] result = encodedPage.toByteArray();
+        stats.get(domainType).encoded(bytes.length, result.length);
+        return result;
+    }
+
+    public static String decode(byte[] page, DomainType domainType) throws Exception {
+        long startTime = System.nanoTime();
+        String result = new String(isCompressed(page) ? decompress(page) : page, Constant.UTF8);
+        stats.get(domainType).decoded(System.nanoTime() - startTime);
+        return result;
+    }
+
+    public static boolean isCompressed(byte[] page) {
+        return page.length >= HEADER_SIZE + TRAILER_SIZE && page[0] == HEADER[0] && page[1] == HEADER[1];
+    }
+
+    private static byte[] decompress(byte[] page) throws Exception {
+        int size = readInt(page, page.length - 4);
+        if (page[2] != Deflater.DEFLATED || page[3] != 0 || size < 0) {
+            GZIPInputStream gzis = new GZIPInputStream(new ByteArrayInputStream(page));
+            try {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.min(page.length * 4, MAX_PAGE_SIZE));
+                byte[] buf = new byte[8192];
+                int numBytesRead;
+                while ((numBytesRead = gzis.read(buf)) != -1) {
+                    if (bytes.size() + numBytesRead > MAX_PAGE_SIZE) {
+                        throw new ZipException("page is larger than " + MAX_PAGE_SIZE + " bytes");
+                    }
+                    bytes.write(buf, 0, numBytesRead);
+                }
+                return bytes.toByteArray();
+            } finally {
+                IO.close(gzis);
+            }
+        }
+
+        if (size > MAX_PAGE_SIZE || size > (long) (page.length - HEADER_SIZE - TRAILER_SIZE) * MAX_DEFLATE_RATIO) {
+            throw new ZipException("corrupt page size " + size + " for " + page.length + " compressed bytes");
+        }
+
+        byte[] bytes = new byte[size];
+        Inflater inflater = inflaters.poll();
+        if (inflater == null) {
+            inflater = new Inflater(true);
+        }
+        try {
+            inflater.setInput(page, HEADER_SIZE, page.length - HEADER_SIZE);
+            int numBytesRead = 0, numBytes;
+            while (numBytesRead < size && (numBytes = inflater.inflate(bytes, numBytesRead, size - numBytesRead)) != 0) {
+                numBytesRead += numBytes;
+            }
+            if (numBytesRead != size) {
+                throw new ZipException("truncated page");
+            }
+        } finally {
+            inflater.reset();
+            inflaters.offer(inflater);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        if ((int) crc.getValue() != readInt(page, page.length - TRAILER_SIZE)) {
+            throw new ZipException("corrupt page");
+        }
+        return bytes;
+    }
+
+    private static void writeInt(ByteArrayOutputStream bytes, int value) {
+        bytes.write(value);
+        bytes.write(value >>> 8);
+        bytes.write(value >>> 16);
+        bytes.write(value >>> 24);
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xff) | (bytes[offset + 1] & 0xff) << 8 | (bytes[offset + 2] & 0xff) << 16 | (bytes[offset + 3] & 0xff) << 24;
+    }
+
+    public static String stats() {
+        StringBuilder result = new StringBuilder(512);
+        result.append("page codec:");
+        for (Entry<DomainType, Stats> entry : stats.entrySet()) {
+            Stats domainStats = entry.getValue();
+            result.append(IOConstant.NEWLINE).append('\t').append(entry.getKey()).append(": ").append(domainStats.numEncoded.get()).append(" encoded, ").append(
+                    String.format("%.2f", domainStats.compressionRatio())).append(" compression ratio, ").append(domainStats.numDecoded.get()).append(
+                    " decoded, ").append(String.format("%.1f", domainStats.averageDecodeTime())).append(" us average decode time");
+        }
+        return result.toString();
+    }
+
+    private static class Stats {
+
+        final AtomicLong numEncoded = new AtomicLong(), rawSize = new AtomicLong(), encodedSize = new AtomicLong(), numDecoded = new AtomicLong(),
+                decodeTime = new AtomicLong();
+
+        Stats() {
+        }
+
+        void encoded(long pageRawSize, long pageEncodedSize) {
+            numEncoded.incrementAndGet();
+            rawSize.addAndGet(pageRawSize);
+            encodedSize.addAndGet(pageEncodedSize);
+        }
+
+        void decoded(long pageDecodeTime) {
+            numDecoded.incrementAndGet();
+            decodeTime.addAndGet(pageDecodeTime);
+        }
+
+        double compressionRatio() {
+            long size = encodedSize.get();
+            return size == 0 ? 0 : rawSize.get() / (double) size;
+        }
+
+        double averageDecodeTime() {
+            long numPages = numDecoded.get();
+            return numPages == 0 ? 0 : decodeTime.get() / (numPages * 1000.0);
+        }
+    }
+
+    private PageCodec() {
+    }
+}
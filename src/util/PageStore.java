@@ -0,0 +1,18 @@
+package util;
+
+public interface PageStore {
+
+    byte[] read(Long key) throws Exception;
+
+    long write(Long key, byte[] page) throws Exception;
+
+    boolean contains(Long key);
+
+    void remove(Long key);
+
+    void flush();
+
+    void close();
+
+    String stats();
+}
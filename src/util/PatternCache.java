@@ -0,0 +1,88 @@
+package util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+public class PatternCache {
+
+    private static final int MAX_DYNAMIC_PATTERNS = 512;
+    private static final Map<String, Pattern> dynamicPatterns = new LinkedHashMap<String, Pattern>(MAX_DYNAMIC_PATTERNS * 2, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Entry<String, Pattern> eldest) {
+            if (size() > MAX_DYNAMIC_PATTERNS) {
+                dynamicEvictions.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    };
+    private static volatile int numPermanentPatterns;
+    private static final AtomicLong permanentHits = new AtomicLong(), permanentCompileTime = new AtomicLong(), dynamicHits = new AtomicLong(),
+            dynamicMisses = new AtomicLong(), dynamicEvictions = new AtomicLong(), dynamicCompileTime = new AtomicLong();
+
+    public static Pattern[] compile(String[] regexes) {
+        long startTime = System.nanoTime();
+        Pattern[] patterns = new Pattern[regexes.length];
+        int numPatterns = 0;
+        for (int i = 0; i < regexes.length; i++) {
+            try {
+                patterns[i] = Pattern.compile(regexes[i]);
+                ++numPatterns;
+            } catch (PatternSyntaxException e) {
+                patterns[i] = null;
+            }
+        }
+        permanentCompileTime.addAndGet(System.nanoTime() - startTime);
+        numPermanentPatterns = numPatterns;
+        return patterns;
+    }
+
+    public static Pattern permanent(Pattern pattern) {
+        if (pattern != null) {
+            permanentHits.incrementAndGet();
+        }
+        return pattern;
+    }
+
+    public static Pattern dynamic(String regex) {
+        Pattern pattern;
+        synchronized (dynamicPatterns) {
+            pattern = dynamicPatterns.get(regex);
+        }
+        if (pattern != null) {
+            dynamicHits.incrementAndGet();
+            return pattern;
+        }
+
+        dynamicMisses.incrementAndGet();
+        long startTime = System.nanoTime();
+        pattern = Pattern.compile(regex);
+        dynamicCompileTime.addAndGet(System.nanoTime() - startTime);
+        synchronized (dynamicPatterns) {
+            dynamicPatterns.put(regex, pattern);
+        }
+        return pattern;
+    }
+
+    public static String stats() {
+        int numDynamicPatterns;
+        synchronized (dynamicPatterns) {
+            numDynamicPatterns = dynamicPatterns.size();
+        }
+        long hits = dynamicHits.get(), misses = dynamicMisses.get();
+        return "pattern cache:" + Constant.NEWLINE + "\tupdate file tier: " + numPermanentPatterns + " patterns, " + permanentHits.get() + " hits, "
+                + permanentCompileTime.get() / 1000000 + " ms compile time" + Constant.NEWLINE + "\tdynamic tier: " + numDynamicPatterns + '/'
+                + MAX_DYNAMIC_PATTERNS + " patterns, " + hits + " hits, " + misses + " misses (" + String.format("%.1f", hits + misses == 0 ? 0 : hits
+                * 100.0 / (hits + misses)) + "% hit ratio), " + dynamicEvictions.get() + " evictions, " + dynamicCompileTime.get() / 1000000
+                + " ms compile time";
+    }
+
+    private PatternCache() {
+    }
+}
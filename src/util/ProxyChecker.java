@@ -0,0 +1,90 @@
+package util;
+
+import debug.Debug;
+import java.io.IOException;
+import java.net.Proxy;
+import java.net.Socket;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class ProxyChecker {
+
+    private static final long ALIVE_TTL = 300000, DEAD_TTL = 30000;
+    private static final ConcurrentMap<Proxy, Liveness> proxies = new ConcurrentHashMap<Proxy, Liveness>(4);
+
+    public static boolean isAlive(Proxy proxy, int timeout) {
+        Liveness liveness = proxies.get(proxy);
+        if (liveness == null) {
+            return check(proxy, timeout);
+        }
+
+        if (liveness.isExpired()) {
+            if (!liveness.alive) {
+                return check(proxy, timeout);
+            }
+            refresh(proxy, liveness, timeout);
+        }
+        return liveness.alive;
+    }
+
+    public static void alive(Proxy proxy) {
+        Liveness liveness = proxies.get(proxy);
+        if (liveness == null || !liveness.alive || liveness.isExpired()) {
+            proxies.put(proxy, new Liveness(true));
+        }
+    }
+
+    public static void dead(Proxy proxy) {
+        if (Debug.DEBUG) {
+            Debug.println("proxy " + proxy + " is dead");
+        }
+        proxies.put(proxy, new Liveness(false));
+    }
+
+    private static boolean check(Proxy proxy, int timeout) {
+        Socket socket = new Socket();
+        try {
+            socket.connect(proxy.address(), timeout);
+            alive(proxy);
+            return true;
+        } catch (IOException e) {
+            if (Debug.DEBUG) {
+                Debug.print(e);
+            }
+            dead(proxy);
+            return false;
+        } finally {
+            IO.close(socket);
+        }
+    }
+
+    private static void refresh(final Proxy proxy, Liveness liveness, final int timeout) {
+        if (liveness.refreshing.compareAndSet(false, true)) {
+            (new Worker() {
+                @Override
+                protected void doWork() {
+                    check(proxy, timeout);
+                }
+            }).execute();
+        }
+    }
+
+    private static class Liveness {
+
+        final boolean alive;
+        final long time = System.currentTimeMillis();
+        final AtomicBoolean refreshing = new AtomicBoolean();
+
+        Liveness(boolean alive) {
+            this.alive = alive;
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() - time > (alive ? ALIVE_TTL : DEAD_TTL);
+        }
+    }
+
+    private ProxyChecker() {
+    }
+}
@@ -6,11 +6,15 @@ import java.io.InputStreamReader;
 import java.text.Normalizer;
 import java.text.Normalizer.Form;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.TreeMap;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.swing.text.html.HTMLEditorKit;
@@ -19,12 +23,21 @@ import str.Str;
 
 public class Regex {
 
-    private static final Map<String, Pattern> cache;
+    private static final long MATCH_TIMEOUT = 5000;
+    static final int ANY_START_REGEX = -1;
+    private static final Set<String> INLINE_TAGS = new HashSet<String>(Arrays.asList("a", "b", "big", "em", "font", "i", "s", "small", "span", "strike",
+            "strong", "sub", "sup", "tt", "u"));
+    private static final Map<String, Character> ENTITIES = new HashMap<String, Character>(8);
     public static final Map<String, String> languages, countries, subtitleLanguages;
-    private static volatile Map<String, String> weirdCharReplacements, badStrReplacements;
+    private static volatile Replacements weirdCharReplacements, badStrReplacements, htmlEntityBadStrReplacements;
+    private static volatile AnyPattern anyPattern;
 
     static {
-        cache = new ConcurrentHashMap<String, Pattern>(800, 0.75f, 30);
+        ENTITIES.put("amp", '&');
+        ENTITIES.put("lt", '<');
+        ENTITIES.put("gt", '>');
+        ENTITIES.put("quot", '"');
+        ENTITIES.put("nbsp", '\u00a0');
         initReplacements();
         (languages = new TreeMap<String, String>()).put(Constant.ANY, Constant.ANY);
         init(languages, 234);
@@ -36,7 +49,7 @@ public class Regex {
     public static void initReplacements() {
         Map<String, String> tempWeirdCharReplacements = new TreeMap<String, String>();
         init(tempWeirdCharReplacements, 552);
-        weirdCharReplacements = tempWeirdCharReplacements;
+        weirdCharReplacements = new Replacements(tempWeirdCharReplacements);
         Map<String, String> tempBadStrReplacements = new TreeMap<String, String>();
         tempBadStrReplacements.put("&(?i)tilde;", "~");
         tempBadStrReplacements.put("&(?i)nbsp;", " ");
@@ -44,7 +57,14 @@ public class Regex {
         tempBadStrReplacements.put(Str.get(224), Str.get(225));
         tempBadStrReplacements.put(Str.get(226), Str.get(227));
         init(tempBadStrReplacements, 228);
-        badStrReplacements = tempBadStrReplacements;
+        Map<String, String> tempHtmlEntityBadStrReplacements = new TreeMap<String, String>();
+        for (Entry<String, String> entry : tempBadStrReplacements.entrySet()) {
+            if (entry.getKey().charAt(0) == '&') {
+                tempHtmlEntityBadStrReplacements.put(entry.getKey(), entry.getValue());
+            }
+        }
+        badStrReplacements = new Replacements(tempBadStrReplacements);
+        htmlEntityBadStrReplacements = new Replacements(tempHtmlEntityBadStrReplacements);
     }
 
     private static void init(Map<String, String> map, int strIndex) {
@@ -62,27 +82,36 @@ public class Regex {
         return split(Str.get(inputIndex), regex);
     }
 
-    public static String[] split(String input, int regexIndex) {
-        return split(input, Str.get(regexIndex));
+    public static String[] split(CharSequence input, int regexIndex) {
+        long startTime = RegexProfiler.start();
+        String[] result = pattern(regexIndex).split(guard(input, regexIndex));
+        RegexProfiler.stop(regexIndex, startTime, input.length());
+        return result;
     }
 
-    public static String[] split(String input, String regex) {
+    public static String[] split(CharSequence input, String regex) {
         return pattern(regex).split(input);
     }
 
-    public static String replaceFirst(String input, int regexIndex) {
-        return replaceFirst(input, Str.get(regexIndex), Str.get(regexIndex + 1));
+    public static String replaceFirst(CharSequence input, int regexIndex) {
+        long startTime = RegexProfiler.start();
+        String result = matcher(regexIndex, guard(input, regexIndex)).replaceFirst(Str.get(regexIndex + 1));
+        RegexProfiler.stop(regexIndex, startTime, input.length());
+        return result;
     }
 
-    public static String replaceFirst(String input, String regex, String replacement) {
+    public static String replaceFirst(CharSequence input, String regex, String replacement) {
         return matcher(regex, input).replaceFirst(replacement);
     }
 
-    public static String replaceAll(String input, int regexIndex) {
-        return replaceAll(input, Str.get(regexIndex), Str.get(regexIndex + 1));
+    public static String replaceAll(CharSequence input, int regexIndex) {
+        long startTime = RegexProfiler.start();
+        String result = matcher(regexIndex, guard(input, regexIndex)).replaceAll(Str.get(regexIndex + 1));
+        RegexProfiler.stop(regexIndex, startTime, input.length());
+        return result;
     }
 
-    public static String replaceAll(String input, String regex, String replacement) {
+    public static String replaceAll(CharSequence input, String regex, String replacement) {
         return matcher(regex, input).replaceAll(replacement);
     }
 
@@ -94,12 +123,17 @@ public class Regex {
 
         String result = input;
         for (int i = 0; i < regexes.length; i++) {
-            result = replaceAll(result, regexes[i], replacements[i]);
+            result = matcher(regexes[i], guard(result, regexesIndex)).replaceAll(replacements[i]);
         }
         return result;
     }
 
-    public static String htmlToPlainText(String htmlText) {
+    public static String htmlToPlainText(CharSequence htmlText) {
+        String plainText = simpleHtmlToPlainText(htmlText);
+        return plainText == null ? parsedHtmlToPlainText(htmlText.toString()) : cleanWeirdChars(plainText);
+    }
+
+    private static String parsedHtmlToPlainText(String htmlText) {
         final StringBuilder plainText = new StringBuilder(htmlText.length());
         try {
             (new ParserDelegator()).parse(new InputStreamReader(new ByteArrayInputStream(htmlText.getBytes(Constant.UTF8)), Constant.UTF8),
@@ -118,47 +152,184 @@ public class Regex {
         return cleanWeirdChars(plainText.toString());
     }
 
+    private static String simpleHtmlToPlainText(CharSequence htmlText) {
+        // Handles inline tags, basic entities and collapsible whitespace like ParserDelegator does, or returns null to let it handle the rest
+        int len = htmlText.length();
+        StringBuilder plainText = new StringBuilder(len);
+        boolean isSpace = false, hasNewline = false, hasTag = false;
+        for (int i = 0; i < len; i++) {
+            char c = htmlText.charAt(i);
+            if (c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+                isSpace = true;
+                hasNewline |= (c != ' ' && c != '\t');
+                continue;
+            }
+            if (c == '<') {
+                if ((i = inlineTagEnd(htmlText, i + 1, len)) == -1) {
+                    return null;
+                }
+                hasTag = true;
+                continue;
+            }
+
+            if (isSpace) {
+                plainText.append(' ');
+                isSpace = false;
+            }
+
+            if (c == '&') {
+                int entityEnd = entityEnd(htmlText, i + 1, len);
+                if (entityEnd == -1) {
+                    return null;
+                }
+                if (entityEnd == i) {
+                    plainText.append(c);
+                } else if ((c = entity(htmlText, i + 1, entityEnd)) == 0) {
+                    return null;
+                } else {
+                    plainText.append(c);
+                    i = entityEnd;
+                }
+            } else if (c < ' ' || (c >= '\u007f' && c <= '\u009f') || c == '\u2028' || c == '\u2029' || Character.isSurrogate(c)) {
+                return null;
+            } else {
+                plainText.append(c);
+            }
+        }
+        return hasNewline && hasTag ? null : plainText.toString();
+    }
+
+    private static int inlineTagEnd(CharSequence htmlText, int start, int len) {
+        int nameStart = (start < len && htmlText.charAt(start) == '/' ? start + 1 : start), nameEnd = nameStart;
+        while (nameEnd < len && isAsciiLetter(htmlText.charAt(nameEnd))) {
+            nameEnd++;
+        }
+        if (nameEnd == nameStart || nameEnd == len || !INLINE_TAGS.contains(htmlText.subSequence(nameStart, nameEnd).toString().toLowerCase(Locale.ENGLISH))) {
+            return -1;
+        }
+
+        char c = htmlText.charAt(nameEnd);
+        if (c == '>') {
+            return nameEnd;
+        }
+        if (c != ' ' || nameStart != start) {
+            return -1;
+        }
+
+        boolean isQuoted = false;
+        for (int i = nameEnd + 1; i < len; i++) {
+            if ((c = htmlText.charAt(i)) == '"') {
+                isQuoted = !isQuoted;
+            } else if (c == '<' || c == '\'' || c == '&' || c == '/' || c < ' ') {
+                return -1;
+            } else if (c == '>' && !isQuoted) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int entityEnd(CharSequence htmlText, int start, int len) {
+        if (start == len) {
+            return start - 1;
+        }
+        char c = htmlText.charAt(start);
+        if (c != '#' && !isAsciiLetter(c)) {
+            return start - 1;
+        }
+        for (int i = start + 1, end = Math.min(start + 8, len); i < end; i++) {
+            if (htmlText.charAt(i) == ';') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static char entity(CharSequence htmlText, int start, int end) {
+        String entity = htmlText.subSequence(start, end).toString();
+        if (entity.charAt(0) != '#') {
+            Character entityChar = ENTITIES.get(entity);
+            return entityChar == null ? 0 : entityChar;
+        }
+
+        int codePoint = 0, radix = 10, i = 1;
+        if (entity.length() > 1 && (entity.charAt(1) == 'x' || entity.charAt(1) == 'X')) {
+            radix = 16;
+            i++;
+        }
+        if (i == entity.length()) {
+            return 0;
+        }
+        for (; i < entity.length(); i++) {
+            int digit = Character.digit(entity.charAt(i), radix);
+            if (digit == -1 || entity.charAt(i) > 'f') {
+                return 0;
+            }
+            codePoint = codePoint * radix + digit;
+        }
+        return (codePoint > ' ' && codePoint < '\u007f') || (codePoint >= '\u00a0' && codePoint < '\u2028') || (codePoint > '\u2029' && codePoint < '\ud800')
+                || (codePoint >= '\ue000' && codePoint < '\ufffe') ? (char) codePoint : 0;
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
     public static String clean(String str) {
         return clean(str, true);
     }
 
     public static String clean(String str, boolean useNonHtmlEntityBadStrs) {
-        String result = str;
-        for (Entry<String, String> entry : badStrReplacements.entrySet()) {
-            String badStr = entry.getKey();
-            if (useNonHtmlEntityBadStrs || badStr.charAt(0) == '&') {
-                result = replaceAll(result, badStr, entry.getValue());
-            }
-        }
+        String result = (useNonHtmlEntityBadStrs ? badStrReplacements : htmlEntityBadStrReplacements).replace(str);
         return replaceAll(replaceAll(htmlToPlainText(result), Str.get(136), Str.get(133)), 339).trim();
     }
 
-    public static String cleanWeirdChars(String str) {
-        String result = replaceAll(Normalizer.normalize(str, Form.NFD), "\\p{InCombiningDiacriticalMarks}+", "");
-        for (Entry<String, String> entry : weirdCharReplacements.entrySet()) {
-            result = replaceAll(result, entry.getKey(), entry.getValue());
+    public static String cleanWeirdChars(CharSequence str) {
+        return weirdCharReplacements.replace(removeCombiningDiacriticalMarks(Normalizer.normalize(str, Form.NFD))).trim();
+    }
+
+    private static String removeCombiningDiacriticalMarks(String str) {
+        StringBuilder result = null;
+        for (int i = 0, len = str.length(); i < len; i++) {
+            char c = str.charAt(i);
+            if (c >= '\u0300' && c <= '\u036f') {
+                if (result == null) {
+                    result = new StringBuilder(len).append(str, 0, i);
+                }
+            } else if (result != null) {
+                result.append(c);
+            }
         }
-        return result.trim();
+        return result == null ? str : result.toString();
     }
 
     public static String toFileName(String str) {
         return replaceAll(replaceAll(clean(str), "[^\\p{Alnum}]", " ").trim(), " ++", "-");
     }
 
-    public static boolean isMatch(String input, int regexIndex) {
-        return isMatch(input, Str.get(regexIndex));
+    public static boolean isMatch(CharSequence input, int regexIndex) {
+        long startTime = RegexProfiler.start();
+        boolean result = matcher(regexIndex, guard(input, regexIndex)).matches();
+        RegexProfiler.stop(regexIndex, startTime, input.length());
+        return result;
     }
 
-    public static boolean isMatch(String input, String regex) {
+    public static boolean isMatch(CharSequence input, String regex) {
         return matcher(regex, input).matches();
     }
 
-    public static String firstMatch(String input, int regexIndex) {
-        return firstMatch(input, Str.get(regexIndex));
+    public static String firstMatch(CharSequence input, int regexIndex) {
+        long startTime = RegexProfiler.start();
+        String result = firstMatch(matcher(regexIndex, guard(input, regexIndex)));
+        RegexProfiler.stop(regexIndex, startTime, input.length());
+        return result;
     }
 
-    public static String firstMatch(String input, String regex) {
-        Matcher matcher = matcher(regex, input);
+    public static String firstMatch(CharSequence input, String regex) {
+        return firstMatch(matcher(regex, input));
+    }
+
+    private static String firstMatch(Matcher matcher) {
         while (!matcher.hitEnd()) {
             if (matcher.find()) {
                 return matcher.group().trim();
@@ -168,101 +339,260 @@ public class Regex {
         return "";
     }
 
-    public static List<String> allMatches(String input, int regexIndex) {
+    public static List<String> allMatches(CharSequence input, int regexIndex) {
+        long startTime = RegexProfiler.start();
         List<String> result = new ArrayList<String>(8);
 
-        Matcher matcher = matcher(regexIndex, input);
+        Matcher matcher = matcher(regexIndex, guard(input, regexIndex));
         while (!matcher.hitEnd()) {
             if (matcher.find()) {
                 result.add(matcher.group().trim());
             }
         }
 
+        RegexProfiler.stop(regexIndex, startTime, input.length());
         return result;
     }
 
-    public static List<String> matches(String input, int startRegexIndex) {
-        return matches(input, Str.get(startRegexIndex), Str.get(startRegexIndex + 1));
+    public static List<String> matches(CharSequence input, int startRegexIndex) {
+        long startTime = RegexProfiler.start();
+        List<String> result = matches(guard(input, startRegexIndex), pattern(startRegexIndex), pattern(startRegexIndex + 1));
+        RegexProfiler.stop(startRegexIndex, startTime, input.length());
+        return result;
     }
 
-    public static List<String> matches(String input, String startRegex, String endRegex) {
-        List<String> result = new ArrayList<String>(8);
+    public static List<String> matches(CharSequence input, String startRegex, String endRegex) {
+        return matches(input, pattern(startRegex), pattern(endRegex));
+    }
 
-        Matcher startMatcher = matcher(startRegex, input);
+    private static List<String> matches(CharSequence input, Pattern startPattern, Pattern endPattern) {
+        int[] regions = regions(input, startPattern, endPattern, false);
+        List<String> result = new ArrayList<String>(Math.max(8, regions.length / 2));
+        for (int i = 0; i < regions.length; i += 2) {
+            result.add(input.subSequence(regions[i], regions[i + 1]).toString());
+        }
+        return result;
+    }
+
+    public static int[] regions(CharSequence input, int startRegexIndex) {
+        long startTime = RegexProfiler.start();
+        int[] result = regions(guard(input, startRegexIndex), pattern(startRegexIndex), pattern(startRegexIndex + 1), false);
+        RegexProfiler.stop(startRegexIndex, startTime, input.length());
+        return result;
+    }
+
+    public static int[] firstRegion(CharSequence input, int startRegexIndex) {
+        long startTime = RegexProfiler.start();
+        int[] result = regions(guard(input, startRegexIndex), pattern(startRegexIndex), pattern(startRegexIndex + 1), true);
+        RegexProfiler.stop(startRegexIndex, startTime, input.length());
+        return result;
+    }
+
+    private static int[] regions(CharSequence input, Pattern startPattern, Pattern endPattern, boolean firstOnly) {
+        // Returns trimmed (start, end) offset pairs, reusing one end matcher for every start match
+        int[] regions = new int[firstOnly ? 2 : 16];
+        int numRegionOffsets = 0;
+        Matcher startMatcher = startPattern.matcher(input), endMatcher = null;
         while (!startMatcher.hitEnd()) {
             if (!startMatcher.find()) {
                 continue;
             }
 
-            int startRegexEnd = startMatcher.end(), endIndex = -1;
-
-            Matcher endMatcher = matcher(endRegex, input).region(startRegexEnd, input.length());
-            while (!endMatcher.hitEnd()) {
-                if (endMatcher.find()) {
-                    endIndex = endMatcher.start();
+            if (numRegionOffsets == regions.length) {
+                regions = Arrays.copyOf(regions, numRegionOffsets * 2);
+            }
+            // region() does not clear hitEnd(), so the reused end matcher is searched directly instead of being polled with hitEnd()
+            endMatcher = (endMatcher == null ? endPattern.matcher(input) : endMatcher);
+            if (!endRegion(input, startMatcher.end(), endMatcher, regions, numRegionOffsets)) {
+                if (firstOnly) {
                     break;
                 }
+                continue;
             }
 
-            if (endIndex == -1) {
-                continue;
+            numRegionOffsets += 2;
+            if (firstOnly) {
+                break;
             }
+        }
+
+        return numRegionOffsets == regions.length ? regions : Arrays.copyOf(regions, numRegionOffsets);
+    }
 
-            result.add(input.substring(startRegexEnd, endIndex).trim());
+    private static boolean endRegion(CharSequence input, int startRegexEnd, Matcher endMatcher, int[] regions, int regionOffset) {
+        if (!endMatcher.region(startRegexEnd, input.length()).find()) {
+            return false;
         }
 
-        return result;
+        int start = startRegexEnd, end = endMatcher.start();
+        while (start < end && input.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && input.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        regions[regionOffset] = start;
+        regions[regionOffset + 1] = end;
+        return true;
     }
 
-    public static String match(String input, int startRegexIndex) {
-        return match(input, Str.get(startRegexIndex), Str.get(startRegexIndex + 1));
+    public static int[] firstRegions(CharSequence input, int... startRegexIndexes) {
+        // Finds the first (start, end) region of every start/end regex pair with one scan for the start regexes; regions without a match are (-1, -1)
+        int numRegexes = startRegexIndexes.length;
+        int[] regions = new int[numRegexes * 2];
+        Arrays.fill(regions, -1);
+        if (numRegexes == 0) {
+            return regions;
+        }
+
+        Pattern[] startPatterns = new Pattern[numRegexes];
+        for (int i = 0; i < numRegexes; i++) {
+            startPatterns[i] = pattern(startRegexIndexes[i]);
+        }
+
+        Pattern anyStartPattern = anyPattern(startPatterns);
+        if (anyStartPattern != null) {
+            try {
+                firstRegions(input, startRegexIndexes, startPatterns, anyStartPattern, regions);
+                return regions;
+            } catch (RegexTimeoutException e) {
+                if (e.REGEX_INDEX != ANY_START_REGEX) {
+                    throw e;
+                }
+                if (Debug.DEBUG) {
+                    Debug.println(e + ", rescanning each start regex separately");
+                }
+                Arrays.fill(regions, -1);
+            }
+        }
+
+        for (int i = 0; i < numRegexes; i++) {
+            int regexIndex = startRegexIndexes[i];
+            long startTime = RegexProfiler.start();
+            int[] region = regions(guard(input, regexIndex), startPatterns[i], pattern(regexIndex + 1), true);
+            RegexProfiler.stop(regexIndex, startTime, input.length());
+            if (region.length != 0) {
+                regions[i * 2] = region[0];
+                regions[i * 2 + 1] = region[1];
+            }
+        }
+        return regions;
     }
 
-    public static String match(String input, String startRegex, String endRegex) {
-        Matcher startMatcher = matcher(startRegex, input);
-        while (!startMatcher.hitEnd()) {
-            if (!startMatcher.find()) {
-                continue;
+    private static void firstRegions(CharSequence input, int[] startRegexIndexes, Pattern[] startPatterns, Pattern anyStartPattern, int[] regions) {
+        // The alternation only locates candidate starts; each start/end regex then runs guarded and profiled under its own index
+        int numRegexes = startRegexIndexes.length, numFound = 0, len = input.length(), from = 0;
+        Matcher anyStartMatcher = anyStartPattern.matcher(new InterruptibleCharSequence(input, ANY_START_REGEX, MATCH_TIMEOUT));
+        Matcher[] startMatchers = new Matcher[numRegexes];
+        boolean[] isFound = new boolean[numRegexes];
+        while (numFound < numRegexes && from <= len) {
+            long startTime = RegexProfiler.start();
+            boolean isStartFound = anyStartMatcher.find(from);
+            RegexProfiler.stop(ANY_START_REGEX, startTime, len - from);
+            if (!isStartFound) {
+                break;
             }
 
-            int startRegexEnd = startMatcher.end(), endIndex = -1;
+            int start = anyStartMatcher.start();
+            for (int i = 0; i < numRegexes; i++) {
+                if (isFound[i]) {
+                    continue;
+                }
 
-            Matcher endMatcher = matcher(endRegex, input).region(startRegexEnd, input.length());
-            while (!endMatcher.hitEnd()) {
-                if (endMatcher.find()) {
-                    endIndex = endMatcher.start();
-                    break;
+                int regexIndex = startRegexIndexes[i];
+                startTime = RegexProfiler.start();
+                if (startMatchers[i] == null) {
+                    startMatchers[i] = startPatterns[i].matcher(guard(input, regexIndex)).useTransparentBounds(true).useAnchoringBounds(false);
+                }
+                if (startMatchers[i].region(start, len).lookingAt()) {
+                    isFound[i] = true;
+                    ++numFound;
+                    endRegion(input, startMatchers[i].end(), pattern(regexIndex + 1).matcher(guard(input, regexIndex)), regions, i * 2);
                 }
+                RegexProfiler.stop(regexIndex, startTime, len - start);
             }
+            from = start + 1;
+        }
+    }
+
+    private static Pattern anyPattern(Pattern[] patterns) {
+        AnyPattern currAnyPattern = anyPattern;
+        if (currAnyPattern != null && Arrays.equals(currAnyPattern.patterns, patterns)) {
+            return currAnyPattern.anyPattern;
+        }
 
-            if (endIndex == -1) {
-                return "";
+        StringBuilder alternation = new StringBuilder(patterns.length * 128);
+        Set<String> regexes = new HashSet<String>(patterns.length * 2);
+        for (Pattern pattern : patterns) {
+            String regex = pattern.pattern();
+            if (pattern.flags() != 0 || !firstMatch(regex, "\\\\(\\d|k<)").isEmpty()) {
+                return null;
+            }
+            if (regexes.add(regex)) {
+                alternation.append(alternation.length() == 0 ? "(?:" : "|(?:").append(regex).append(')');
+            }
+        }
+
+        Pattern newAnyPattern = null;
+        try {
+            newAnyPattern = Pattern.compile(alternation.toString());
+        } catch (Exception e) {
+            if (Debug.DEBUG) {
+                Debug.print(e);
             }
+        }
+        anyPattern = new AnyPattern(patterns.clone(), newAnyPattern);
+        return newAnyPattern;
+    }
+
+    private static class AnyPattern {
 
-            return input.substring(startRegexEnd, endIndex).trim();
+        final Pattern[] patterns;
+        final Pattern anyPattern;
+
+        AnyPattern(Pattern[] patterns, Pattern anyPattern) {
+            this.patterns = patterns;
+            this.anyPattern = anyPattern;
         }
+    }
 
-        return "";
+    public static String match(CharSequence input, int startRegexIndex) {
+        long startTime = RegexProfiler.start();
+        String result = match(guard(input, startRegexIndex), pattern(startRegexIndex), pattern(startRegexIndex + 1));
+        RegexProfiler.stop(startRegexIndex, startTime, input.length());
+        return result;
     }
 
-    public static Matcher matcher(int regexIndex, String input) {
-        return matcher(Str.get(regexIndex), input);
+    public static String match(CharSequence input, String startRegex, String endRegex) {
+        return match(input, pattern(startRegex), pattern(endRegex));
     }
 
-    public static Matcher matcher(String regex, String input) {
+    private static String match(CharSequence input, Pattern startPattern, Pattern endPattern) {
+        int[] region = regions(input, startPattern, endPattern, true);
+        return region.length == 0 ? "" : input.subSequence(region[0], region[1]).toString();
+    }
+
+    // Update-file regexes can change without a release, so every helper that runs one is guarded. Regexes passed as strings are compiled into the
+    // app, and matcher(int, CharSequence) leaves matching to its caller.
+    private static CharSequence guard(CharSequence input, int regexIndex) {
+        return new InterruptibleCharSequence(input, regexIndex, MATCH_TIMEOUT);
+    }
+
+    public static Matcher matcher(int regexIndex, CharSequence input) {
+        return pattern(regexIndex).matcher(input);
+    }
+
+    public static Matcher matcher(String regex, CharSequence input) {
         return pattern(regex).matcher(input);
     }
 
     public static Pattern pattern(int regexIndex) {
-        return pattern(Str.get(regexIndex));
+        Pattern pattern = PatternCache.permanent(Str.pattern(regexIndex));
+        return pattern == null ? pattern(Str.get(regexIndex)) : pattern;
     }
 
     public static Pattern pattern(String regex) {
-        Pattern pattern = cache.get(regex);
-        if (pattern == null) {
-            cache.put(regex, pattern = Pattern.compile(regex)); // Not a concurrency bug
-        }
-        return pattern;
+        return PatternCache.dynamic(regex);
     }
 
     private Regex() {
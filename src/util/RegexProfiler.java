@@ -0,0 +1,123 @@
+package util;
+
+import debug.Debug;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import str.Str;
+
+public class RegexProfiler {
+
+    private static volatile boolean isEnabled = Boolean.getBoolean("regexProfiling");
+    private static final ConcurrentMap<Integer, Profile> profiles = new ConcurrentHashMap<Integer, Profile>(1024);
+
+    public static boolean isEnabled() {
+        return isEnabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        isEnabled = enabled;
+    }
+
+    public static long start() {
+        return isEnabled ? System.nanoTime() : 0;
+    }
+
+    public static void stop(int regexIndex, long startTime, int inputLength) {
+        if (startTime == 0) {
+            return;
+        }
+
+        long time = System.nanoTime() - startTime;
+        Profile profile = profiles.get(regexIndex);
+        if (profile == null) {
+            Profile newProfile = new Profile(regexIndex);
+            if ((profile = profiles.putIfAbsent(regexIndex, newProfile)) == null) {
+                profile = newProfile;
+            }
+        }
+        profile.add(time, inputLength);
+    }
+
+    public static void reset() {
+        profiles.clear();
+    }
+
+    public static String report() {
+        List<Profile> sortedProfiles = new ArrayList<Profile>(profiles.size());
+        for (Entry<Integer, Profile> entry : profiles.entrySet()) {
+            sortedProfiles.add(entry.getValue().copy());
+        }
+        Collections.sort(sortedProfiles, new Comparator<Profile>() {
+            @Override
+            public int compare(Profile profile1, Profile profile2) {
+                return Long.compare(profile2.totalTime, profile1.totalTime);
+            }
+        });
+
+        StringBuilder report = new StringBuilder(sortedProfiles.size() * 128 + 128);
+        report.append("regex profile (by total time):").append(Constant.NEWLINE).append(String.format("%6s %9s %11s %10s %10s %11s %11s  %s", "index",
+                "calls", "total ms", "avg us", "worst us", "avg chars", "max chars", "regex"));
+        for (Profile profile : sortedProfiles) {
+            String regex;
+            try {
+                regex = (profile.regexIndex == Regex.ANY_START_REGEX ? "(start regex alternation of Regex.firstRegions)" : Str.get(profile.regexIndex));
+            } catch (Exception e) {
+                if (Debug.DEBUG) {
+                    Debug.print(e);
+                }
+                regex = "";
+            }
+            report.append(Constant.NEWLINE).append(String.format("%6d %9d %11.1f %10.1f %10.1f %11d %11d  %s", profile.regexIndex, profile.numCalls,
+                    profile.totalTime / 1e6, profile.totalTime / 1e3 / profile.numCalls, profile.worstTime / 1e3, profile.totalInputLength / profile.numCalls,
+                    profile.maxInputLength, regex.length() > 80 ? regex.substring(0, 77) + "..." : regex));
+        }
+        return report.toString();
+    }
+
+    public static void dump() {
+        try {
+            IO.write(Constant.APP_DIR + Constant.REGEX_PROFILE, report());
+        } catch (Exception e) {
+            if (Debug.DEBUG) {
+                Debug.print(e);
+            }
+        }
+    }
+
+    private static class Profile {
+
+        final int regexIndex;
+        long numCalls, totalTime, worstTime, totalInputLength;
+        int maxInputLength;
+
+        Profile(int regexIndex) {
+            this.regexIndex = regexIndex;
+        }
+
+        synchronized void add(long time, int inputLength) {
+            ++numCalls;
+            totalTime += time;
+            worstTime = Math.max(worstTime, time);
+            totalInputLength += inputLength;
+            maxInputLength = Math.max(maxInputLength, inputLength);
+        }
+
+        synchronized Profile copy() {
+            Profile profile = new Profile(regexIndex);
+            profile.numCalls = numCalls;
+            profile.totalTime = totalTime;
+            profile.worstTime = worstTime;
+            profile.totalInputLength = totalInputLength;
+            profile.maxInputLength = maxInputLength;
+            return profile;
+        }
+    }
+
+    private RegexProfiler() {
+    }
+}
@@ -0,0 +1,17 @@
+package util;
+
+public class RegexTimeoutException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+    public final int REGEX_INDEX;
+
+    public RegexTimeoutException(int regexIndex, long timeout, int inputLength) {
+        super("regex " + regexIndex + " took longer than " + timeout + " ms on " + inputLength + " chars");
+        REGEX_INDEX = regexIndex;
+    }
+
+    @Override
+    public String toString() {
+        return getMessage();
+    }
+}
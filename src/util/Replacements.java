@@ -0,0 +1,210 @@
+package util;
+
+import debug.Debug;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+public class Replacements {
+
+    private static final String REGEX_META_CHARS = "\\^$.|?*+()[]{}";
+    private final List<Step> steps = new ArrayList<Step>(8);
+
+    public Replacements(Map<String, String> replacements) {
+        List<Entry<String, String>> regexEntries = new ArrayList<Entry<String, String>>(replacements.size());
+        String regexPrefix = null;
+        Step charStep = null;
+        for (Entry<String, String> entry : replacements.entrySet()) {
+            String regex = entry.getKey(), replacement = entry.getValue();
+            int c = literalChar(regex);
+            if (c != -1 && replacement.indexOf('$') == -1 && replacement.indexOf('\\') == -1) {
+                if (!regexEntries.isEmpty()) {
+                    steps.add(regexStep(regexEntries, regexPrefix));
+                    regexEntries.clear();
+                }
+                // Replacing chars in one pass only matches replacing them one after another if no earlier replacement produces a later char
+                if (charStep == null || charStep.replacedChars.indexOf(String.valueOf((char) c)) != -1) {
+                    steps.add(charStep = new Step());
+                }
+                charStep.add((char) c, replacement);
+                continue;
+            }
+
+            charStep = null;
+            String prefix = literalPrefix(regex);
+            if (!regexEntries.isEmpty() && (prefix == null ? regexPrefix != null : !prefix.equals(regexPrefix))) {
+                steps.add(regexStep(regexEntries, regexPrefix));
+                regexEntries.clear();
+            }
+            regexPrefix = prefix;
+            regexEntries.add(entry);
+        }
+        if (!regexEntries.isEmpty()) {
+            steps.add(regexStep(regexEntries, regexPrefix));
+        }
+    }
+
+    private static int literalChar(String regex) {
+        int len = regex.length();
+        if (len == 1) {
+            char c = regex.charAt(0);
+            return REGEX_META_CHARS.indexOf(c) == -1 ? c : -1;
+        }
+        if (len == 2 && regex.charAt(0) == '\\' && !Character.isLetterOrDigit(regex.charAt(1))) {
+            return regex.charAt(1);
+        }
+        if (len == 6 && Regex.isMatch(regex, "\\\\u\\p{XDigit}{4}+")) {
+            char c = (char) Integer.parseInt(regex.substring(2), 16);
+            return Character.isSurrogate(c) ? -1 : c;
+        }
+        return -1;
+    }
+
+    private static String literalPrefix(String regex) {
+        if (regex.contains("\\Q")) {
+            return null;
+        }
+
+        StringBuilder prefix = new StringBuilder(8);
+        int depth = 0;
+        boolean isPrefix = true, isEscaped = false, isCharClass = false;
+        for (int i = 0, len = regex.length(); i < len; i++) {
+            char c = regex.charAt(i);
+            if (isPrefix) {
+                if (c == '\\' && i + 1 < len && !Character.isLetterOrDigit(regex.charAt(i + 1))) {
+                    c = regex.charAt(++i);
+                } else if (REGEX_META_CHARS.indexOf(c) != -1) {
+                    isPrefix = false;
+                    if ((c == '?' || c == '*' || c == '{') && prefix.length() != 0) {
+                        prefix.setLength(prefix.length() - 1);
+                    }
+                }
+                if (isPrefix) {
+                    prefix.append(c);
+                    continue;
+                }
+            }
+
+            if (isEscaped) {
+                isEscaped = false;
+            } else if (c == '\\') {
+                isEscaped = true;
+            } else if (isCharClass) {
+                isCharClass = (c != ']');
+            } else if (c == '[') {
+                isCharClass = true;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == '|' && depth == 0) {
+                return null;
+            }
+        }
+        return prefix.length() == 0 ? null : prefix.toString();
+    }
+
+    private static Step regexStep(List<Entry<String, String>> entries, String prefix) {
+        int numEntries = entries.size();
+        Pattern[] patterns = new Pattern[numEntries];
+        String[] replacements = new String[numEntries];
+        StringBuilder alternation = new StringBuilder(numEntries * 32);
+        boolean hasBackReference = false;
+        for (int i = 0; i < numEntries; i++) {
+            Entry<String, String> entry = entries.get(i);
+            String regex = entry.getKey();
+            patterns[i] = Pattern.compile(regex);
+            replacements[i] = entry.getValue();
+            hasBackReference |= !Regex.firstMatch(regex, "\\\\(\\d|k<)").isEmpty();
+            alternation.append(i == 0 ? "(?:" : "|(?:").append(regex).append(')');
+        }
+
+        Pattern anyPattern = null;
+        if (numEntries > 1 && !hasBackReference) {
+            try {
+                anyPattern = Pattern.compile(alternation.toString());
+            } catch (PatternSyntaxException e) {
+                if (Debug.DEBUG) {
+                    Debug.print(e);
+                }
+            }
+        }
+        return new Step(prefix, anyPattern, patterns, replacements);
+    }
+
+    public String replace(String input) {
+        String result = input;
+        for (Step step : steps) {
+            result = step.replace(result);
+        }
+        return result;
+    }
+
+    private static class Step {
+
+        String[] charReplacements;
+        final StringBuilder replacedChars;
+        final String prefix;
+        final Pattern anyPattern;
+        final Pattern[] patterns;
+        final String[] replacements;
+
+        Step() {
+            charReplacements = new String[128];
+            replacedChars = new StringBuilder(32);
+            prefix = null;
+            anyPattern = null;
+            patterns = null;
+            replacements = null;
+        }
+
+        Step(String prefix, Pattern anyPattern, Pattern[] patterns, String[] replacements) {
+            charReplacements = null;
+            replacedChars = null;
+            this.prefix = prefix;
+            this.anyPattern = anyPattern;
+            this.patterns = patterns;
+            this.replacements = replacements;
+        }
+
+        void add(char c, String replacement) {
+            if (c >= charReplacements.length) {
+                charReplacements = Arrays.copyOf(charReplacements, Math.max(c + 1, charReplacements.length * 2));
+            }
+            charReplacements[c] = replacement;
+            replacedChars.append(replacement);
+        }
+
+        String replace(String input) {
+            if (charReplacements != null) {
+                StringBuilder result = null;
+                for (int i = 0, len = input.length(); i < len; i++) {
+                    char c = input.charAt(i);
+                    String replacement = (c < charReplacements.length ? charReplacements[c] : null);
+                    if (replacement != null) {
+                        if (result == null) {
+                            result = new StringBuilder(len + 16).append(input, 0, i);
+                        }
+                        result.append(replacement);
+                    } else if (result != null) {
+                        result.append(c);
+                    }
+                }
+                return result == null ? input : result.toString();
+            }
+
+            if ((prefix != null && !input.contains(prefix)) || (anyPattern != null && !anyPattern.matcher(input).find())) {
+                return input;
+            }
+            String result = input;
+            for (int i = 0; i < patterns.length; i++) {
+                result = patterns[i].matcher(result).replaceAll(replacements[i]);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,432 @@
+package util;
+
+import debug.Debug;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class SegmentPageStore implements PageStore {
+
+    private static final int SLOT_SIZE = 20, OFFSET = 8, LENGTH = 16, RECORD_HEADER_SIZE = 12, REMOVED = -1, FLUSH_INTERVAL = 256;
+    private final int numSlots;
+    private final long maxSize;
+    private final File dataFile, compactedDataFile;
+    private MappedByteBuffer index;
+    private RandomAccessFile data;
+    private long dataSize, liveSize;
+    private int numEntries, numUsedSlots, numUnflushedWrites;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean isCompacting = new AtomicBoolean(), isFlushing = new AtomicBoolean();
+    private final AtomicLong numCompactions = new AtomicLong(), numEvictions = new AtomicLong(), numFlushes = new AtomicLong();
+
+    public SegmentPageStore(String path, int numSlots, long maxSize) throws IOException {
+        this.numSlots = numSlots;
+        this.maxSize = maxSize;
+        dataFile = new File(path + ".dat");
+        compactedDataFile = new File(path + ".compacted");
+        File dir = dataFile.getParentFile();
+        if (dir != null && !dir.exists() && !dir.mkdirs()) {
+            throw new IOException("cannot create " + dir);
+        }
+
+        long indexSize = (long) numSlots * SLOT_SIZE;
+        RandomAccessFile indexFile = new RandomAccessFile(path + ".idx", "rw");
+        boolean isNew;
+        try {
+            if (isNew = indexFile.length() != indexSize || !dataFile.exists()) {
+                indexFile.setLength(0);
+                indexFile.setLength(indexSize);
+            }
+            index = indexFile.getChannel().map(MapMode.READ_WRITE, 0, indexSize);
+        } finally {
+            IO.close(indexFile);
+        }
+        data = new RandomAccessFile(dataFile, "rw");
+        if (isNew) {
+            data.setLength(0);
+        }
+        dataSize = data.length();
+
+        for (int slot = 0; slot < numSlots; slot++) {
+            int position = slot * SLOT_SIZE;
+            long offset = index.getLong(position + OFFSET) - 1;
+            if (offset == -1) {
+                continue;
+            }
+            ++numUsedSlots;
+            int length = index.getInt(position + LENGTH);
+            if (length == REMOVED) {
+                continue;
+            }
+            if (length < 0 || offset + RECORD_HEADER_SIZE + length > dataSize) {
+                index.putInt(position + LENGTH, REMOVED);
+                continue;
+            }
+            ++numEntries;
+            liveSize += RECORD_HEADER_SIZE + length;
+        }
+        IO.fileOp(compactedDataFile, IO.RM_FILE);
+    }
+
+    private int firstSlot(long key) {
+        int hash = (int) (key ^ (key >>> 32));
+        return ((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % numSlots;
+    }
+
+    private int find(long key) {
+        for (int i = 0, slot = firstSlot(key); i < numSlots; i++, slot = (slot + 1) % numSlots) {
+            int position = slot * SLOT_SIZE;
+            if (index.getLong(position + OFFSET) == 0) {
+                return -1;
+            }
+            if (index.getLong(position) == key && index.getInt(position + LENGTH) != REMOVED) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private int freeSlot(long key) {
+        for (int i = 0, slot = firstSlot(key); i < numSlots; i++, slot = (slot + 1) % numSlots) {
+            int position = slot * SLOT_SIZE;
+            if (index.getLong(position + OFFSET) == 0 || index.getInt(position + LENGTH) == REMOVED) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private byte[] readRecord(long key, long offset, int length) throws IOException {
+        byte[] record = new byte[RECORD_HEADER_SIZE + length];
+        synchronized (data) {
+            data.seek(offset);
+            data.readFully(record);
+        }
+        ByteBuffer header = ByteBuffer.wrap(record);
+        return header.getLong() == key && header.getInt() == length ? record : null;
+    }
+
+    @Override
+    public byte[] read(Long key) throws Exception {
+        lock.readLock().lock();
+        try {
+            int slot;
+            if (index == null || (slot = find(key)) == -1) {
+                return null;
+            }
+            int position = slot * SLOT_SIZE, length = index.getInt(position + LENGTH);
+            byte[] record = readRecord(key, index.getLong(position + OFFSET) - 1, length);
+            return record == null ? null : Arrays.copyOfRange(record, RECORD_HEADER_SIZE, record.length);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long write(Long key, byte[] page) throws Exception {
+        int recordSize = RECORD_HEADER_SIZE + page.length;
+        if (recordSize > maxSize / 8) {
+            remove(key);
+            throw new IOException("page " + key + " is too large for the page store (" + page.length + " bytes)");
+        }
+
+        boolean needsFlush;
+        lock.writeLock().lock();
+        try {
+            if (index == null) {
+                throw new IOException("page store " + dataFile + " is closed");
+            }
+            removeHelper(key);
+            int slot = freeSlot(key);
+            if (slot == -1) {
+                throw new IOException("page store index is full");
+            }
+
+            ByteBuffer record = ByteBuffer.allocate(recordSize);
+            record.putLong(key).putInt(page.length).put(page);
+            synchronized (data) {
+                data.seek(dataSize);
+                data.write(record.array());
+            }
+
+            int position = slot * SLOT_SIZE;
+            if (index.getLong(position + OFFSET) == 0) {
+                ++numUsedSlots;
+            }
+            index.putLong(position, key);
+            index.putLong(position + OFFSET, dataSize + 1);
+            index.putInt(position + LENGTH, page.length);
+            dataSize += recordSize;
+            liveSize += recordSize;
+            ++numEntries;
+            needsFlush = ++numUnflushedWrites >= FLUSH_INTERVAL;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (needsFlush && isFlushing.compareAndSet(false, true)) {
+            (new Worker() {
+                @Override
+                protected void doWork() {
+                    try {
+                        flush();
+                    } finally {
+                        isFlushing.set(false);
+                    }
+                }
+            }).execute();
+        }
+        compactIfNeeded();
+        return page.length;
+    }
+
+    @Override
+    public boolean contains(Long key) {
+        lock.readLock().lock();
+        try {
+            return index != null && find(key) != -1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long key) {
+        lock.writeLock().lock();
+        try {
+            removeHelper(key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeHelper(long key) {
+        if (index == null) {
+            return;
+        }
+        int slot = find(key);
+        if (slot != -1) {
+            int position = slot * SLOT_SIZE;
+            liveSize -= RECORD_HEADER_SIZE + index.getInt(position + LENGTH);
+            --numEntries;
+            index.putInt(position + LENGTH, REMOVED);
+        }
+    }
+
+    private void compactIfNeeded() {
+        boolean needsCompaction;
+        lock.readLock().lock();
+        try {
+            needsCompaction = index != null && (dataSize > maxSize || dataSize - liveSize > maxSize / 4 || numUsedSlots > numSlots / 4 * 3);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        if (needsCompaction && isCompacting.compareAndSet(false, true)) {
+            (new Worker() {
+                @Override
+                protected void doWork() {
+                    try {
+                        compact();
+                    } finally {
+                        isCompacting.set(false);
+                    }
+                }
+            }).execute();
+        }
+    }
+
+    private void compact() {
+        long startTime = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            if (index == null) {
+                return;
+            }
+            List<long[]> entries = new ArrayList<long[]>(numEntries);
+            for (int slot = 0; slot < numSlots; slot++) {
+                int position = slot * SLOT_SIZE;
+                long offset = index.getLong(position + OFFSET) - 1;
+                int length = index.getInt(position + LENGTH);
+                if (offset != -1 && length != REMOVED) {
+                    entries.add(new long[]{index.getLong(position), offset, length});
+                }
+            }
+            Collections.sort(entries, new Comparator<long[]>() {
+                @Override
+                public int compare(long[] entry1, long[] entry2) {
+                    return entry1[1] < entry2[1] ? -1 : (entry1[1] == entry2[1] ? 0 : 1);
+                }
+            });
+
+            long newLiveSize = liveSize, maxLiveSize = maxSize / 4 * 3;
+            int firstEntry = 0, maxEntries = numSlots / 2;
+            while (firstEntry < entries.size() && (newLiveSize > maxLiveSize || entries.size() - firstEntry > maxEntries)) {
+                newLiveSize -= RECORD_HEADER_SIZE + entries.get(firstEntry++)[2];
+            }
+            numEvictions.addAndGet(firstEntry);
+
+            List<long[]> compactedEntries = new ArrayList<long[]>(entries.size() - firstEntry);
+            long compactedDataSize = 0;
+            RandomAccessFile compactedData = new RandomAccessFile(compactedDataFile, "rw");
+            try {
+                compactedData.setLength(0);
+                for (long[] entry : entries.subList(firstEntry, entries.size())) {
+                    byte[] record = readRecord(entry[0], entry[1], (int) entry[2]);
+                    if (record != null) {
+                        compactedData.write(record);
+                        compactedEntries.add(new long[]{entry[0], compactedDataSize, entry[2]});
+                        compactedDataSize += record.length;
+                    }
+                }
+                compactedData.getFD().sync();
+            } finally {
+                IO.close(compactedData);
+            }
+
+            IO.close(data);
+            Files.move(compactedDataFile.toPath(), dataFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            data = new RandomAccessFile(dataFile, "rw");
+            clearIndex();
+            for (long[] entry : compactedEntries) {
+                int position = freeSlot(entry[0]) * SLOT_SIZE;
+                index.putLong(position, entry[0]);
+                index.putLong(position + OFFSET, entry[1] + 1);
+                index.putInt(position + LENGTH, (int) entry[2]);
+                liveSize += RECORD_HEADER_SIZE + entry[2];
+            }
+            numEntries = numUsedSlots = compactedEntries.size();
+            dataSize = compactedDataSize;
+            flushHelper();
+            numCompactions.incrementAndGet();
+            if (Debug.DEBUG) {
+                Debug.println("page store " + dataFile + " compacted to " + numEntries + " pages (" + dataSize + " bytes, " + firstEntry + " evicted) in "
+                        + (System.currentTimeMillis() - startTime) + " ms");
+            }
+        } catch (Exception e) {
+            if (Debug.DEBUG) {
+                Debug.print(e);
+            }
+            reset();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void clearIndex() {
+        for (int slot = 0; slot < numSlots; slot++) {
+            index.putLong(slot * SLOT_SIZE + OFFSET, 0);
+        }
+        liveSize = 0;
+        numEntries = numUsedSlots = 0;
+    }
+
+    private void reset() {
+        clearIndex();
+        dataSize = 0;
+        try {
+            if (!data.getChannel().isOpen()) {
+                data = new RandomAccessFile(dataFile, "rw");
+            }
+            data.setLength(0);
+        } catch (Exception e) {
+            if (Debug.DEBUG) {
+                Debug.print(e);
+            }
+        }
+    }
+
+    @Override
+    public void flush() {
+        lock.writeLock().lock();
+        try {
+            flushHelper();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void flushHelper() {
+        if (index == null) {
+            return;
+        }
+        try {
+            data.getFD().sync();
+            index.force();
+            numUnflushedWrites = 0;
+            numFlushes.incrementAndGet();
+        } catch (Exception e) {
+            if (Debug.DEBUG) {
+                Debug.print(e);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            if (index == null) {
+                return;
+            }
+            flushHelper();
+            unmap(index);
+            index = null;
+            IO.close(data);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void unmap(MappedByteBuffer buffer) {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner;
+            try {
+                invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            } catch (NoSuchMethodException e) {
+                Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                Object cleaner = cleanerMethod.invoke(buffer);
+                if (cleaner != null) {
+                    cleaner.getClass().getMethod("clean").invoke(cleaner);
+                }
+                return;
+            }
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            invokeCleaner.invoke(theUnsafe.get(null), buffer);
+        } catch (Exception e) {
+            if (Debug.DEBUG) {
+                Debug.print(e);
+            }
+        }
+    }
+
+    @Override
+    public String stats() {
+        lock.readLock().lock();
+        try {
+            return "segment store " + dataFile.getName() + ": " + numEntries + " pages, " + liveSize + '/' + dataSize + '/' + maxSize + " live/total/max bytes, "
+                    + numCompactions.get() + " compactions, " + numEvictions.get() + " evictions, " + numFlushes.get() + " flushes";
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}